@@ -0,0 +1,28 @@
+/* ******************************************************************************
+ * Copyright (c) 2014 - 2015 Fabian Prasser.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ * 
+ * Contributors:
+ *     Fabian Prasser - initial API and implementation
+ ******************************************************************************/
+
+package de.linearbits.swt.widgets;
+
+/**
+ * Listener for value changes of knobs, which is notified with the value as a double
+ * 
+ * @author Fabian Prasser
+ */
+public interface DoubleKnobListener {
+
+    /**
+     * Called when the value of the knob has changed
+     * 
+     * @param knob
+     * @param value
+     */
+    public void valueChanged(Knob<?> knob, double value);
+}
@@ -11,9 +11,6 @@
 
 package de.linearbits.swt.widgets;
 
-import java.awt.GraphicsDevice;
-import java.awt.GraphicsEnvironment;
-import java.awt.geom.AffineTransform;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -37,16 +34,15 @@ import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Cursor;
 import org.eclipse.swt.graphics.GC;
 import org.eclipse.swt.graphics.Image;
-import org.eclipse.swt.graphics.ImageData;
-import org.eclipse.swt.graphics.PaletteData;
 import org.eclipse.swt.graphics.Point;
-import org.eclipse.swt.graphics.RGB;
+import org.eclipse.swt.graphics.Rectangle;
 import org.eclipse.swt.graphics.Transform;
 import org.eclipse.swt.widgets.Canvas;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.Listener;
+import org.eclipse.swt.widgets.Monitor;
 
 /**
  * This class implements a knob widget for SWT
@@ -57,10 +53,87 @@ import org.eclipse.swt.widgets.Listener;
  */
 public class Knob<T> extends Canvas {
 
-    /** Design */
-    private static final int CUT_OFF    = 90;
+    /** Renders the knob with Java2D */
+    public static final int RENDERER_AWT      = 0;
+    /** Renders the knob with a software rasterizer, which does not require AWT */
+    public static final int RENDERER_SOFTWARE = 1;
+
+    /** Calls widgetSelected and widgetDefaultSelected on every change */
+    public static final int EVENTS_IMMEDIATE  = 0;
+    /** Calls widgetSelected at most once per interval and widgetDefaultSelected when a change is committed */
+    public static final int EVENTS_THROTTLED  = 1;
+    /** Calls widgetSelected after the value has not changed for an interval and widgetDefaultSelected when a change is committed */
+    public static final int EVENTS_DEBOUNCED  = 2;
+
     /** Design */
     private static final int SCALE_DOWN = 20;
+    /** Maximal number of ticks for which indicator frames are pre-rendered per tick */
+    private static final int MAX_TICK_FRAMES = 72;
+    /** Maximal number of pixels of an image with pre-rendered indicator frames */
+    private static final int MAX_FRAMES_PIXELS = 4 * 1024 * 1024;
+    /** Milliseconds, for which the size must be stable, before backgrounds are rendered after a resize */
+    private static final int RESIZE_DELAY = 200;
+
+    /**
+     * Returns the maximal number of bytes of all images, which are cached by knobs on the given display
+     * 
+     * @param display
+     * @return
+     */
+    public static long getImageCacheBudget(Display display) {
+        return KnobImageCache.get(display).getBudget();
+    }
+
+    /**
+     * Returns the maximal number of redraws per second of knobs on the given display, while
+     * they are being dragged or changed with the keyboard. Zero means that redraws are not limited.
+     * 
+     * @param display
+     * @return
+     */
+    public static int getRedrawRate(Display display) {
+        return KnobRedrawScheduler.get(display).getRate();
+    }
+
+    /**
+     * Returns the rendering statistics of all knobs on the given display
+     * 
+     * @param display
+     * @return
+     */
+    public static KnobStatistics getStatistics(Display display) {
+        return KnobImageCache.get(display).getStatistics();
+    }
+
+    /**
+     * Sets the maximal number of bytes of all images, which are cached by knobs on the given display,
+     * e.g. backgrounds and indicator frames. When the budget is exceeded, the least recently used images
+     * are disposed and rendered again when they are needed. The default is 64 MB.
+     * The budget is raised to the images, which the visible knobs have used when they have been painted
+     * last, so that they do not evict the images of each other. Many visible knobs with different sizes
+     * or appearances can therefore exceed the budget. Knobs release these images when they are hidden or
+     * disposed. The resulting limit is reported by {@link KnobStatistics#getLimit()}.
+     * 
+     * @param display
+     * @param bytes
+     */
+    public static void setImageCacheBudget(Display display, long bytes) {
+        if (bytes < 0) { throw new IllegalArgumentException("Budget must be >= 0"); }
+        KnobImageCache.get(display).setBudget(bytes);
+    }
+
+    /**
+     * Sets the maximal number of redraws per second of knobs on the given display, while
+     * they are being dragged or changed with the keyboard. Redraws of all knobs on the display
+     * are coalesced into one frame. The default is 60. Pass 0 to redraw on every change.
+     * 
+     * @param display
+     * @param rate
+     */
+    public static void setRedrawRate(Display display, int rate) {
+        if (rate < 0) { throw new IllegalArgumentException("Rate must be >= 0"); }
+        KnobRedrawScheduler.get(display).setRate(rate);
+    }
 
     /**
      * Checks the style
@@ -73,26 +146,74 @@ public class Knob<T> extends Canvas {
 
     /** Design */
     private final Cursor            defaultCursor     = getDefaultCursor();
-    /** Design */
-    private final Cursor            hiddenCursor      = getHiddenCursor();
 
     /** Language profile */
     private KnobDialogProfile       dialogProfile     = KnobDialogProfile.createEnglishProfile();
 
-    /** Default color profile */
+    /** Shared default system profile, null if it has been replaced */
     private KnobColorProfile        standardDefaultProfile;
-    /** Focused color profile */
+    /** Shared focused system profile, null if it has been replaced */
     private KnobColorProfile        standardFocusedProfile;
     /** Default color profile */
     private KnobColorProfile        defaultProfile;
     /** Focused color profile */
     private KnobColorProfile        focusedProfile;
-    /** Pre-rendered default background */
-    private Image                   defaultBackground = null;
-    /** Pre-rendered focused background */
-    private Image                   focusedBackground = null;
-    /** Retina factor (OSX fix) */
-    private int                     scaleFactor       = isRetina() ? 2 : 1;
+    /** Cache key of the default background */
+    private KnobImageCache.Key      defaultBackgroundKey = null;
+    /** Cache key of the focused background */
+    private KnobImageCache.Key      focusedBackgroundKey = null;
+    /** Cache key of the default indicator frames */
+    private KnobImageCache.Key      defaultFramesKey  = null;
+    /** Cache key of the focused indicator frames */
+    private KnobImageCache.Key      focusedFramesKey  = null;
+    /** Number of pre-rendered indicator frames for continuous ranges, zero if disabled */
+    private int                     indicatorFrames   = 0;
+    /** Renderer for the knob's body */
+    private int                     renderer          = RENDERER_AWT;
+    /** Whether backgrounds are rendered in the background */
+    private boolean                 asynchronous      = false;
+    /** Whether focus is painted as an overlay onto the default background */
+    private boolean                 focusOverlay      = false;
+    /** Offscreen image for painting small knobs */
+    private Image                   smallOffscreen    = null;
+    /** Downscaled images of small knobs, per value position */
+    private Image[]                 smallImages       = null;
+    /** Size of the downscaled images */
+    private int                     smallSize         = 0;
+    /** Focus state of the downscaled images */
+    private boolean                 smallFocused      = false;
+    /** Value of the downscaled image of a continuous range */
+    private double                  smallValue        = 0d;
+    /** Geometry of the knob at the size, at which it has been painted last */
+    private KnobGeometry            geometry          = null;
+    /** The monitor, on which the knob is displayed */
+    private Monitor                 monitor           = getMonitor();
+    /** Scale factor of the monitor, e.g. 2 for Retina displays */
+    private float                   scale             = KnobScaling.getScale(getDisplay(), monitor);
+    /** Transform for the scale factor, shared by all knobs on the display */
+    private Transform               transform         = null;
+    /** Tracks the monitor, when the shell is moved */
+    private final Listener          moveHandler       = createMoveHandler();
+
+    /** Resizing: cache key of the background, which is scaled while resizing, null if not resizing */
+    private KnobImageCache.Key      resizeKey         = null;
+    /** Resizing: completes the resize, when the size has been stable or the mouse is released */
+    private final Runnable          resizeTimer       = new Runnable() {
+                                                          @Override
+                                                          public void run() {
+                                                              if (!isDisposed() && resizeKey != null) {
+                                                                  releaseResizeBackground();
+                                                                  redraw();
+                                                              }
+                                                          }
+                                                      };
+    /** Resizing: completes the resize, when the mouse is released */
+    private final Listener          resizeFilter      = new Listener() {
+                                                          @Override
+                                                          public void handleEvent(Event event) {
+                                                              resizeTimer.run();
+                                                          }
+                                                      };
 
     /** Dragging */
     private boolean                 drag              = false;
@@ -114,8 +235,35 @@ public class Knob<T> extends Canvas {
     /** Value handling */
     private KnobRange<T>            range             = null;
 
+    /** Redrawing */
+    private boolean                 redrawPending     = false;
+    /** Redrawing: the value displayed before the pending redraw */
+    private double                  redrawValue       = 0d;
+
     /** Listeners */
     private List<SelectionListener> listeners         = new ArrayList<SelectionListener>();
+    /** Listeners */
+    private final KnobListeners     knobListeners     = new KnobListeners();
+    /** Events */
+    private int                     eventMode         = EVENTS_IMMEDIATE;
+    /** Events */
+    private int                     eventInterval     = 50;
+    /** Events: whether a call to widgetSelected is pending */
+    private boolean                 eventPending      = false;
+    /** Events: whether there are changes, which have not been committed */
+    private boolean                 eventUncommitted  = false;
+    /** Events: time of the last call to widgetSelected */
+    private long                    eventTime         = 0L;
+    /** Events: delivers pending calls to widgetSelected */
+    private final Runnable          eventTimer        = new Runnable() {
+                                                          @Override
+                                                          public void run() {
+                                                              if (!isDisposed() && eventPending) {
+                                                                  eventPending = false;
+                                                                  fireSelected();
+                                                              }
+                                                          }
+                                                      };
 
     /**
      * Creates a new instance
@@ -131,8 +279,8 @@ public class Knob<T> extends Canvas {
         // Init
         this.range = range;
         this.setBackground(getDisplay().getSystemColor(SWT.COLOR_WIDGET_BACKGROUND));
-        this.standardDefaultProfile = KnobColorProfile.createDefaultSystemProfile(parent.getDisplay());
-        this.standardFocusedProfile = KnobColorProfile.createFocusedSystemProfile(parent.getDisplay());
+        this.standardDefaultProfile = KnobSystemProfiles.get(getDisplay()).acquireDefault();
+        this.standardFocusedProfile = KnobSystemProfiles.get(getDisplay()).acquireFocused();
         this.defaultProfile = standardDefaultProfile;
         this.focusedProfile = standardFocusedProfile;
         this.sensitivity = range.getSensitivity();
@@ -145,7 +293,42 @@ public class Knob<T> extends Canvas {
         this.addMouseMoveListener(createMouseMoveHandler());
         this.addKeyListener(createKeyHandler());
         this.addFocusListener(createFocusHandler());
+        this.addListener(SWT.Hide, createHideHandler());
         this.addListener(SWT.Traverse, createTraverseHandler());
+        this.getShell().addListener(SWT.Move, moveHandler);
+    }
+
+    /**
+     * Adds a listener, which is notified about value changes with the value converted to a double,
+     * without allocating events or boxing values
+     * 
+     * @param listener
+     */
+    public void addDoubleKnobListener(DoubleKnobListener listener) {
+        checkWidget();
+        this.knobListeners.addDouble(listener);
+    }
+
+    /**
+     * Adds a listener, which is notified about value changes with the value converted to an int,
+     * without allocating events or boxing values
+     * 
+     * @param listener
+     */
+    public void addIntKnobListener(IntKnobListener listener) {
+        checkWidget();
+        this.knobListeners.addInt(listener);
+    }
+
+    /**
+     * Adds a listener, which is notified about value changes with the value converted to a long,
+     * without allocating events or boxing values
+     * 
+     * @param listener
+     */
+    public void addLongKnobListener(LongKnobListener listener) {
+        checkWidget();
+        this.knobListeners.addLong(listener);
     }
 
     /**
@@ -178,6 +361,66 @@ public class Knob<T> extends Canvas {
         return this.range.toExternal(value);
     }
 
+    /**
+     * Returns the value as a double, without boxing it
+     * 
+     * @return
+     */
+    public double getValueAsDouble() {
+        checkWidget();
+        return this.range.toExternalDouble(value);
+    }
+
+    /**
+     * Returns the value as an int, without boxing it
+     * 
+     * @return
+     */
+    public int getValueAsInt() {
+        checkWidget();
+        return (int) this.range.toExternalLong(value);
+    }
+
+    /**
+     * Returns the value as a long, without boxing it
+     * 
+     * @return
+     */
+    public long getValueAsLong() {
+        checkWidget();
+        return this.range.toExternalLong(value);
+    }
+
+    /**
+     * Removes the listener
+     * 
+     * @param listener
+     */
+    public void removeDoubleKnobListener(DoubleKnobListener listener) {
+        checkWidget();
+        this.knobListeners.removeDouble(listener);
+    }
+
+    /**
+     * Removes the listener
+     * 
+     * @param listener
+     */
+    public void removeIntKnobListener(IntKnobListener listener) {
+        checkWidget();
+        this.knobListeners.removeInt(listener);
+    }
+
+    /**
+     * Removes the listener
+     * 
+     * @param listener
+     */
+    public void removeLongKnobListener(LongKnobListener listener) {
+        checkWidget();
+        this.knobListeners.removeLong(listener);
+    }
+
     /**
      * Removes the listener
      * 
@@ -187,14 +430,28 @@ public class Knob<T> extends Canvas {
         this.listeners.remove(listener);
     }
 
+    /**
+     * Enables or disables asynchronous rendering. When enabled, backgrounds are rendered on a shared
+     * fork/join pool and the knob displays a simple placeholder until its background is available.
+     * The default is false. Backgrounds rendered asynchronously are composed in software, so they are
+     * cached separately from backgrounds painted with a GC, and changing this setting renders them again.
+     *
+     * @param asynchronous
+     */
+    public void setAsynchronousRendering(boolean asynchronous) {
+        checkWidget();
+        if (this.asynchronous != asynchronous) {
+            this.asynchronous = asynchronous;
+            releaseBackgrounds();
+            redraw();
+        }
+    }
+
     @Override
     public void setBackground(Color arg0) {
         super.setBackground(arg0);
         checkWidget();
-        if (defaultBackground != null) defaultBackground.dispose();
-        if (focusedBackground != null) focusedBackground.dispose();
-        defaultBackground = null;
-        focusedBackground = null;
+        releaseBackgrounds();
         redraw();
     }
 
@@ -205,13 +462,12 @@ public class Knob<T> extends Canvas {
     public void setDefaultColorProfile(KnobColorProfile profile) {
         checkWidget();
         profile.check();
-        if (this.standardDefaultProfile != null && !this.standardDefaultProfile.isDisposed()) {
-            this.standardDefaultProfile.dispose();
+        if (this.standardDefaultProfile != null) {
+            KnobSystemProfiles.get(getDisplay()).release(this.standardDefaultProfile);
             this.standardDefaultProfile = null;
         }
         this.defaultProfile = profile;
-        if (defaultBackground != null) defaultBackground.dispose();
-        defaultBackground = null;
+        releaseDefaultBackground();
         redraw();
     }
     
@@ -225,19 +481,34 @@ public class Knob<T> extends Canvas {
         this.dialogProfile = profile;
     }
 
+    /**
+     * Enables or disables painting the focus as an overlay. When enabled, a focused knob is painted
+     * onto the default background, with the border, plateau and indicator of the focused color profile
+     * painted on top, instead of rendering a second background. The default is false.
+     * 
+     * @param overlay
+     */
+    public void setFocusOverlay(boolean overlay) {
+        checkWidget();
+        if (this.focusOverlay != overlay) {
+            this.focusOverlay = overlay;
+            releaseFocusedBackground();
+            redraw();
+        }
+    }
+
     /**
      * Sets the default focused color profile
      */
     public void setFocusedColorProfile(KnobColorProfile profile) {
         checkWidget();
         profile.check();
-        if (this.standardFocusedProfile != null && !this.standardFocusedProfile.isDisposed()) {
-            this.standardFocusedProfile.dispose();
+        if (this.standardFocusedProfile != null) {
+            KnobSystemProfiles.get(getDisplay()).release(this.standardFocusedProfile);
             this.standardFocusedProfile = null;
         }
         this.focusedProfile = profile;
-        if (focusedBackground != null) focusedBackground.dispose();
-        focusedBackground = null;
+        releaseFocusedBackground();
         redraw();
     }
 
@@ -251,14 +522,86 @@ public class Knob<T> extends Canvas {
         this.range = range;
         this.value = 0d;
         this.sensitivity = range.getSensitivity();
-        if (defaultBackground != null) defaultBackground.dispose();
-        if (focusedBackground != null) focusedBackground.dispose();
-        defaultBackground = null;
-        focusedBackground = null;
+        releaseBackgrounds();
         this.fireSelectionEvent();
+        this.fireCommitEvent();
         this.redraw();
     }
 
+    /**
+     * Enables or disables pre-rendered indicator frames. When enabled, the indicator is pre-rendered
+     * onto the knob for the given number of angles (or for each tick, if the range has at most
+     * 72 ticks), so that repainting the knob consists of copying two images. Values of continuous
+     * ranges are displayed at the nearest pre-rendered angle. Pass 0 to disable, which is the default.
+     * 
+     * @param frames
+     */
+    public void setIndicatorFrames(int frames) {
+        checkWidget();
+        if (frames != 0 && frames < 2) { throw new IllegalArgumentException("Number of frames must be 0 or >= 2"); }
+        if (this.indicatorFrames != frames) {
+            this.indicatorFrames = frames;
+            releaseDefaultFrames();
+            releaseFocusedFrames();
+            redraw();
+        }
+    }
+
+    /**
+     * Sets the renderer used for the knob's body. Either {@link #RENDERER_AWT}, which is the default,
+     * or {@link #RENDERER_SOFTWARE}, which renders the same effects without initializing AWT.
+     * 
+     * @param renderer
+     */
+    public void setRenderer(int renderer) {
+        checkWidget();
+        if (renderer != RENDERER_AWT && renderer != RENDERER_SOFTWARE) {
+            throw new IllegalArgumentException("Unknown renderer: " + renderer);
+        }
+        if (this.renderer != renderer) {
+            this.renderer = renderer;
+            releaseBackgrounds();
+            redraw();
+        }
+    }
+
+    /**
+     * Sets the interval in milliseconds used by the event modes {@link #EVENTS_THROTTLED} and
+     * {@link #EVENTS_DEBOUNCED}. The default is 50.
+     * 
+     * @param interval
+     */
+    public void setSelectionEventInterval(int interval) {
+        checkWidget();
+        if (interval <= 0) { throw new IllegalArgumentException("Interval must be > 0"); }
+        this.eventInterval = interval;
+    }
+
+    /**
+     * Sets how selection events are delivered. With {@link #EVENTS_IMMEDIATE}, which is the default,
+     * widgetSelected and widgetDefaultSelected are called on every change. With {@link #EVENTS_THROTTLED}
+     * or {@link #EVENTS_DEBOUNCED}, widgetSelected is called at most once per interval or after the value
+     * has not changed for an interval, with the detail set to SWT.DRAG while the knob is being dragged.
+     * In these modes, widgetDefaultSelected is called once when a change is committed, i.e. when the mouse
+     * button is released, the input dialog is closed, a key is pressed or the value is set programmatically.
+     * 
+     * @param mode
+     */
+    public void setSelectionEventMode(int mode) {
+        checkWidget();
+        if (mode != EVENTS_IMMEDIATE && mode != EVENTS_THROTTLED && mode != EVENTS_DEBOUNCED) {
+            throw new IllegalArgumentException("Unknown event mode: " + mode);
+        }
+        if (this.eventMode != mode) {
+            if (eventPending) {
+                eventPending = false;
+                getDisplay().timerExec(-1, eventTimer);
+            }
+            this.eventUncommitted = false;
+            this.eventMode = mode;
+        }
+    }
+
     /**
      * Sets the sensitivity
      * 
@@ -289,14 +632,58 @@ public class Knob<T> extends Canvas {
         checkWidget();
         double val = this.range.toInternal(value);
         if (val != this.value) {
+            double previous = this.value;
             this.value = val;
-            this.redraw();
+            this.redrawIndicator(previous);
             if (fireSelectionEvent) {
                 this.fireSelectionEvent();
+                this.fireCommitEvent();
             }
         }
     }
 
+    /**
+     * Performs a pending redraw, called by the {@link KnobRedrawScheduler}
+     */
+    void flushRedraw() {
+        if (redrawPending) {
+            redrawPending = false;
+            redrawIndicator(redrawValue);
+        }
+    }
+
+    /**
+     * Acquires the background for the given key from the display's image cache.
+     * Renders and caches it, if it is not available. When rendering asynchronously,
+     * the knob will be redrawn as soon as the background is ready.
+     * 
+     * @param key
+     * @param size
+     * @param profile
+     */
+    private void acquireBackground(KnobImageCache.Key key, int size, KnobColorProfile profile) {
+        if (!KnobImageCache.get(getDisplay()).acquire(key, this)) {
+            renderBackground(key, size, profile);
+        }
+    }
+
+    /**
+     * Acquires the indicator frames for the given key from the display's image cache.
+     * Renders and caches them, if they are not available.
+     * 
+     * @param key
+     * @param background
+     * @param profile
+     * @param min
+     * @param frames
+     */
+    private void acquireFrames(KnobImageCache.Key key, Image background, KnobColorProfile profile, double min, int frames) {
+        KnobImageCache cache = KnobImageCache.get(getDisplay());
+        if (!cache.acquire(key, this)) {
+            cache.put(key, paintFrames(background, profile, min, frames));
+        }
+    }
+
     /**
      * Handle dispose events
      * 
@@ -306,10 +693,14 @@ public class Knob<T> extends Canvas {
         return new DisposeListener() {
             @Override
             public void widgetDisposed(DisposeEvent arg0) {
-                if (defaultBackground != null && !defaultBackground.isDisposed()) defaultBackground.dispose();
-                if (focusedBackground != null && !focusedBackground.isDisposed()) focusedBackground.dispose();
-                if (standardDefaultProfile != null && !standardDefaultProfile.isDisposed()) standardDefaultProfile.dispose();
-                if (standardFocusedProfile != null && !standardFocusedProfile.isDisposed()) standardFocusedProfile.dispose();
+                releaseResizeBackground();
+                releaseBackgrounds();
+                releaseTransform();
+                KnobImageCache.get(getDisplay()).forget(Knob.this);
+                if (!getShell().isDisposed()) getShell().removeListener(SWT.Move, moveHandler);
+                KnobSystemProfiles profiles = KnobSystemProfiles.get(getDisplay());
+                profiles.release(standardDefaultProfile);
+                profiles.release(standardFocusedProfile);
             }
         };
     }
@@ -333,6 +724,19 @@ public class Knob<T> extends Canvas {
         };
     }
 
+    /**
+     * Handle hide events
+     * 
+     * @return
+     */
+    private Listener createHideHandler() {
+        return new Listener() {
+            public void handleEvent(Event e) {
+                KnobImageCache.get(getDisplay()).forget(Knob.this);
+            }
+        };
+    }
+
     /**
      * Handle key events
      * 
@@ -367,9 +771,11 @@ public class Knob<T> extends Canvas {
 
                 // Change
                 if (value != newValue) {
+                    double previous = value;
                     value = newValue;
                     fireSelectionEvent();
-                    redraw();
+                    fireCommitEvent();
+                    scheduleRedraw(previous);
                 }
             }
         };
@@ -394,9 +800,11 @@ public class Knob<T> extends Canvas {
                 KnobInputDialog<T> dialog = new KnobInputDialog<T>(getShell(), dialogProfile, range, range.toExternal(value));
                 T result = dialog.open();
                 if (result != null) {
+                    double previous = value;
                     value = range.toInternal(result);
                     fireSelectionEvent();
-                    redraw();
+                    fireCommitEvent();
+                    redrawIndicator(previous);
                 }
             }
 
@@ -409,7 +817,7 @@ public class Knob<T> extends Canvas {
                 dragValue = value;
                 dragOffset = 0;
                 drag = true;
-                Knob.this.setCursor(hiddenCursor);
+                Knob.this.setCursor(KnobCursors.get(getDisplay()).getHiddenCursor());
                 Knob.this.setFocus();
             }
 
@@ -419,6 +827,7 @@ public class Knob<T> extends Canvas {
                     drag = false;
                     getDisplay().setCursorLocation(screenX, screenY);
                     Knob.this.setCursor(defaultCursor);
+                    fireCommitEvent();
                 }
             }
         };
@@ -446,9 +855,10 @@ public class Knob<T> extends Canvas {
                     }
 
                     if (value != newValue) {
+                        double previous = value;
                         value = newValue;
                         fireSelectionEvent();
-                        redraw();
+                        scheduleRedraw(previous);
                     }
 
                     getDisplay().setCursorLocation(screenX, screenY);
@@ -457,6 +867,20 @@ public class Knob<T> extends Canvas {
         };
     }
 
+    /**
+     * Handle moves of the shell
+     * 
+     * @return
+     */
+    private Listener createMoveHandler() {
+        return new Listener() {
+            @Override
+            public void handleEvent(Event arg0) {
+                updateScale();
+            }
+        };
+    }
+
     /**
      * Handle paint events
      * 
@@ -466,7 +890,13 @@ public class Knob<T> extends Canvas {
         return new PaintListener() {
             @Override
             public void paintControl(PaintEvent arg0) {
-                paint(arg0.gc);
+                KnobImageCache cache = KnobImageCache.get(getDisplay());
+                cache.beginPaint(Knob.this);
+                try {
+                    paint(arg0.gc);
+                } finally {
+                    cache.endPaint(Knob.this);
+                }
             }
         };
     }
@@ -480,15 +910,31 @@ public class Knob<T> extends Canvas {
         return new ControlAdapter() {
             @Override
             public void controlResized(ControlEvent arg0) {
-                if (defaultBackground != null) defaultBackground.dispose();
-                if (focusedBackground != null) focusedBackground.dispose();
-                defaultBackground = null;
-                focusedBackground = null;
+                KnobImageCache.get(getDisplay()).getStatistics().resized();
+                updateScale();
+                retainResizeBackground();
+                releaseBackgrounds();
                 redraw();
             }
         };
     }
 
+    /**
+     * Creates a selection event
+     * 
+     * @param detail
+     * @return
+     */
+    private SelectionEvent createSelectionEvent(int detail) {
+        Event event = new Event();
+        event.widget = this;
+        SelectionEvent sevent = new SelectionEvent(event);
+        sevent.widget = this;
+        sevent.detail = detail;
+        sevent.data = range.toExternal(this.value);
+        return sevent;
+    }
+
     /**
      * Handle traverse events
      * 
@@ -511,21 +957,108 @@ public class Knob<T> extends Canvas {
         };
     }
 
+
+    /**
+     * Fires a commit event, i.e. calls widgetDefaultSelected, if there are uncommitted changes.
+     * Pending calls to widgetSelected are delivered before.
+     */
+    private void fireCommitEvent() {
+        if (eventMode == EVENTS_IMMEDIATE || !eventUncommitted) {
+            return;
+        }
+        if (eventPending) {
+            eventPending = false;
+            getDisplay().timerExec(-1, eventTimer);
+            fireSelected();
+        }
+        eventUncommitted = false;
+        if (!listeners.isEmpty()) {
+            SelectionEvent sevent = createSelectionEvent(SWT.NONE);
+            for (SelectionListener listener : listeners) {
+                listener.widgetDefaultSelected(sevent);
+            }
+        }
+    }
+
     /**
-     * Fires a selection event
+     * Calls widgetSelected on all listeners
+     */
+    private void fireSelected() {
+        eventTime = System.currentTimeMillis();
+        knobListeners.fire(this, range, value);
+        if (!listeners.isEmpty()) {
+            SelectionEvent sevent = createSelectionEvent(drag ? SWT.DRAG : SWT.NONE);
+            for (SelectionListener listener : listeners) {
+                listener.widgetSelected(sevent);
+            }
+        }
+    }
+
+    /**
+     * Fires a selection event according to the event mode
      */
     private void fireSelectionEvent() {
-        Event event = new Event();
-        event.widget = this;
-        SelectionEvent sevent = new SelectionEvent(event);
-        sevent.widget = this;
-        sevent.data = range.toExternal(this.value);
-        for (SelectionListener listener : listeners) {
-            listener.widgetSelected(sevent);
-            listener.widgetDefaultSelected(sevent);
+        switch (eventMode) {
+        case EVENTS_THROTTLED:
+            eventUncommitted = true;
+            if (!eventPending) {
+                long wait = eventTime + eventInterval - System.currentTimeMillis();
+                if (wait <= 0) {
+                    fireSelected();
+                } else {
+                    eventPending = true;
+                    getDisplay().timerExec((int) wait, eventTimer);
+                }
+            }
+            break;
+        case EVENTS_DEBOUNCED:
+            eventUncommitted = true;
+            eventPending = true;
+            getDisplay().timerExec(eventInterval, eventTimer);
+            break;
+        default:
+            knobListeners.fire(this, range, value);
+            if (!listeners.isEmpty()) {
+                SelectionEvent sevent = createSelectionEvent(SWT.NONE);
+                for (SelectionListener listener : listeners) {
+                    listener.widgetSelected(sevent);
+                    listener.widgetDefaultSelected(sevent);
+                }
+            }
         }
     }
 
+    /**
+     * Returns the cache key for a background with the given properties
+     * 
+     * @param size
+     * @param focused
+     * @return
+     */
+    private KnobImageCache.Key getBackgroundKey(int size, boolean focused) {
+        return new KnobImageCache.Key(size,
+                                      Math.round(scale * 100f),
+                                      focused ? focusedProfile : defaultProfile,
+                                      range.getStepping(),
+                                      range.getTickPositions(),
+                                      getBackground().getRGB(),
+                                      focused,
+                                      renderer,
+                                      asynchronous);
+    }
+
+    /**
+     * Returns the coordinate of the center of a knob of the given size
+     * 
+     * @param min
+     * @return
+     */
+    private int getCenter(double min) {
+        int iInner = (int) Math.round(min * 0.4d) - (int) Math.round(min * 0.4d) % 2;
+        int iOuter = (int) Math.round(min * 0.1d);
+        return iOuter + iInner;
+    }
+
     /**
      * Returns the current default cursor of the widget
      * 
@@ -536,58 +1069,68 @@ public class Knob<T> extends Canvas {
     }
 
     /**
-     * Returns an invisible cursor
+     * Returns the number of columns of an image with the given number of indicator frames
      * 
+     * @param frames
      * @return
      */
-    private Cursor getHiddenCursor() {
-        Display display = getDisplay();
-        Color white = display.getSystemColor(SWT.COLOR_WHITE);
-        Color black = display.getSystemColor(SWT.COLOR_BLACK);
-        PaletteData palette = new PaletteData(new RGB[] { white.getRGB(), black.getRGB() });
-        ImageData sourceData = new ImageData(16, 16, 1, palette);
-        sourceData.transparentPixel = 0;
-        final Cursor cursor = new Cursor(display, sourceData, 0, 0);
-        this.addDisposeListener(new DisposeListener(){
-            @Override
-            public void widgetDisposed(DisposeEvent arg0) {
-                if (cursor != null && !cursor.isDisposed()) {
-                    cursor.dispose();
-                }
-            }
-        });
-        return cursor;
+    private int getFrameColumns(int frames) {
+        return (int) Math.ceil(Math.sqrt(frames));
     }
 
     /**
-     * Calculate the x, y coordinates of end of a line from the center to the
-     * edge of the knob for the given value
+     * Returns the number of pre-rendered indicator frames for the current range, zero if disabled
      * 
      * @return
      */
-    private Point getLineCoordinates(int centerX, int centerY, int size, double value) {
+    private int getFrameCount() {
+        if (indicatorFrames == 0) return 0;
+        double stepping = range.getStepping();
+        if (stepping > 0d && 1d / stepping <= MAX_TICK_FRAMES) {
+            return (int) Math.round(1d / stepping) + 1;
+        }
+        return indicatorFrames;
+    }
 
-        value *= 1 - CUT_OFF / 360d;
-        value += CUT_OFF / 720d;
+    /**
+     * Returns the radius of the area around the center, which is covered by the plateau and the indicator
+     * 
+     * @param min
+     * @return
+     */
+    private int getFrameRadius(double min) {
+        int iTick = (int) Math.round(min * 0.3d);
+        int iIndicatorWidth = (int) Math.round(Math.max(min / 20d, 1d));
+        int iPlateau = (int) Math.round(min * 0.075d);
+        return Math.max(iTick, iPlateau) + iIndicatorWidth + 1;
+    }
 
-        double r = (double) size;
-        double x = r * Math.sin(-value * 2d * Math.PI);
-        double y = r * Math.cos(-value * 2d * Math.PI);
-        return new Point((int) Math.round(x + centerX), (int) Math.round(y + centerY));
+    /**
+     * Returns the geometry for a knob of the given size
+     * 
+     * @param size
+     * @return
+     */
+    private KnobGeometry getGeometry(int size) {
+        if (geometry == null || !geometry.matches(size, range)) {
+            geometry = new KnobGeometry(size, range);
+        }
+        return geometry;
     }
+
     
     /**
-     * Returns whether this is a retina device. 
-     * http://lubosplavucha.com/java/2013/09/02/retina-support-in-java-for-awt-swing/
+     * Returns the number of value positions, for which downscaled images of small knobs are cached.
+     * This is one image per tick for ranges with at most 72 ticks, and a single image otherwise.
+     * 
      * @return
      */
-    private boolean isRetina() {
-    	
-        GraphicsDevice graphicsDevice = GraphicsEnvironment.
-        								getLocalGraphicsEnvironment().
-        								getDefaultScreenDevice();
-        AffineTransform tx = graphicsDevice.getDefaultConfiguration().getDefaultTransform();
-        return Math.round(tx.getScaleX()) == 2;
+    private int getSmallPositions() {
+        double stepping = range.getStepping();
+        if (stepping > 0d && 1d / stepping <= MAX_TICK_FRAMES) {
+            return (int) Math.round(1d / stepping) + 1;
+        }
+        return 1;
     }
 
     /**
@@ -605,16 +1148,55 @@ public class Knob<T> extends Canvas {
 
             // Paint to an image and scale down for better results
         } else {
-            Image image = new Image(getDisplay(), SCALE_DOWN * scaleFactor, SCALE_DOWN * scaleFactor);
-            GC gc2 = new GC(image);
-            paint(gc2, new Point(SCALE_DOWN * scaleFactor, SCALE_DOWN * scaleFactor));
-            gc2.dispose();
-
             int size = Math.min(gcsize.x, gcsize.y);
-            gc.setAdvanced(true);
-            gc.setAntialias(SWT.ON);
-            gc.drawImage(image, 0, 0, SCALE_DOWN * scaleFactor, SCALE_DOWN * scaleFactor, 0, 0, size, size);
-            image.dispose();
+            if (size <= 0) return;
+            boolean focused = this.isFocusControl();
+            int positions = getSmallPositions();
+            if (smallImages == null || smallImages.length != positions || smallSize != size || smallFocused != focused) {
+                releaseSmallImages();
+                smallImages = new Image[positions];
+                smallSize = size;
+                smallFocused = focused;
+            }
+            int position = 0;
+            boolean outdated = false;
+            if (positions > 1) {
+                position = (int) Math.round(range.toNearestInternal(value) * (positions - 1));
+            } else {
+                outdated = smallValue != value;
+            }
+
+            // Render, if required. The image of a continuous range is reused for all values.
+            Image image = smallImages[position];
+            if (image == null || outdated) {
+                int offscreen = Math.round(SCALE_DOWN * scale);
+                if (smallOffscreen == null) {
+                    smallOffscreen = new Image(getDisplay(), offscreen, offscreen);
+                }
+                GC gc2 = new GC(smallOffscreen);
+                boolean complete = paint(gc2, new Point(offscreen, offscreen));
+                gc2.dispose();
+
+                if (image == null) {
+                    image = new Image(getDisplay(), size, size);
+                }
+                GC gc3 = new GC(image);
+                gc3.setAdvanced(true);
+                gc3.setAntialias(SWT.ON);
+                gc3.drawImage(smallOffscreen, 0, 0, offscreen, offscreen, 0, 0, size, size);
+                gc3.dispose();
+
+                // Placeholders are not cached
+                if (!complete) {
+                    gc.drawImage(image, 0, 0);
+                    image.dispose();
+                    smallImages[position] = null;
+                    return;
+                }
+                smallImages[position] = image;
+                smallValue = value;
+            }
+            gc.drawImage(image, 0, 0);
         }
     }
 
@@ -623,80 +1205,95 @@ public class Knob<T> extends Canvas {
      * 
      * @param gc
      * @param gcsize
+     * @return Whether the background was available, i.e. no placeholder has been painted
      */
-    private void paint(GC gc, Point gcsize) {
+    private boolean paint(GC gc, Point gcsize) {
         
         KnobColorProfile profile = this.defaultProfile;
         if (this.isFocusControl()) profile = this.focusedProfile;
 
         // Determine size
-        double min = (double) Math.min(gcsize.x, gcsize.y) * scaleFactor;
-        int imageSize = (int) Math.round(min);
-        if (defaultBackground == null || defaultBackground.isDisposed()) {
-            defaultBackground = paintBackground(imageSize, imageSize, this.defaultProfile);
+        int imageSize = Math.round(Math.min(gcsize.x, gcsize.y) * scale);
+        double min = imageSize;
+
+        // Only render the background for the state, which is painted, and not while resizing
+        boolean focused = this.isFocusControl();
+        boolean overlay = focused && focusOverlay;
+        Image interim = resizeKey == null ? null : KnobImageCache.get(getDisplay()).get(resizeKey);
+        if (interim != null && KnobImageCache.get(getDisplay()).contains(getBackgroundKey(imageSize, focused && !overlay))) {
+            // The background has already been rendered at this size
+            releaseResizeBackground();
+            interim = null;
         }
-        if (focusedBackground == null || focusedBackground.isDisposed()) {
-            focusedBackground = paintBackground(imageSize, imageSize, this.focusedProfile);
+        if (interim == null) {
+            if (focused && !overlay) {
+                if (focusedBackgroundKey == null) {
+                    focusedBackgroundKey = getBackgroundKey(imageSize, true);
+                    acquireBackground(focusedBackgroundKey, imageSize, this.focusedProfile);
+                }
+            } else if (defaultBackgroundKey == null) {
+                defaultBackgroundKey = getBackgroundKey(imageSize, false);
+                acquireBackground(defaultBackgroundKey, imageSize, this.defaultProfile);
+            }
         }
 
+        // Determine the area to be repainted
+        Rectangle clip = gc.getClipping();
+        int clipX1 = Math.max((int) Math.floor(clip.x * scale), 0);
+        int clipY1 = Math.max((int) Math.floor(clip.y * scale), 0);
+        int clipX2 = Math.min((int) Math.ceil((clip.x + clip.width) * scale), imageSize);
+        int clipY2 = Math.min((int) Math.ceil((clip.y + clip.height) * scale), imageSize);
+
         // Activate anti-aliasing
         gc.setAdvanced(true);
         gc.setAntialias(SWT.ON);
         
         // Scale to adjust for retina displays
-        if (scaleFactor != 1) {
-        	Transform transform = new Transform(getDisplay());
-        	transform.scale(1f/(float)scaleFactor, 1f/(float)scaleFactor);
-            gc.setTransform(transform);        	
+        if (scale != 1f) {
+            if (transform == null) {
+                transform = KnobTransforms.get(getDisplay()).acquire(scale);
+            }
+            gc.setTransform(transform);
         }
 
-        // Draw background
-        Image background = this.isFocusControl() ? focusedBackground : defaultBackground;
-        gc.drawImage(background, 0, 0, imageSize, imageSize, 0, 0, imageSize, imageSize);
-
-        // Compute parameters
-        double tick = min * 0.3d;
-        double inner = min * 0.4d;
-        double outer = min * 0.1d;
-        double plateau = min * 0.075d;
-        double indicatorWidth = min / 20d;
-        double focusWidth = indicatorWidth / 1.5d;
-        if (indicatorWidth < 1d) indicatorWidth = 1d;
-        double tickWidth = indicatorWidth / 3d;
-        if (tickWidth < 1d) tickWidth = 1d;
-
-        // Convert to ints
-        int iTick = (int) Math.round(tick);
-        int iInner = (int) Math.round(inner) - (int) Math.round(inner) % 2;
-        int iOuter = (int) Math.round(outer);
-        int iCenterX = iOuter + iInner;
-        int iCenterY = iOuter + iInner;
-        int iIndicatorWidth = (int) Math.round(indicatorWidth);
-        int iFocusWidth = (int) Math.round(focusWidth);
-        iIndicatorWidth -= 1 - iIndicatorWidth % 2;
-        if (iIndicatorWidth < 1) iIndicatorWidth = 1;
-        iFocusWidth -= 1 - iFocusWidth % 2;
-        if (iFocusWidth < 1) iFocusWidth = 1;
-        int iPlateau = (int) Math.round(plateau);
+        // While resizing, scale the previous background and skip pre-rendered frames
+        if (interim != null) {
+            KnobImageCache.get(getDisplay()).getStatistics().interimPainted();
+            Rectangle bounds = interim.getBounds();
+            gc.drawImage(interim, 0, 0, bounds.width, bounds.height, 0, 0, imageSize, imageSize);
+            if (overlay) {
+                paintOverlay(gc, profile, min);
+            }
+            paintIndicator(gc, profile, min, 0, 0, range.toNearestInternal(value));
+            return false;
+        }
 
-        // Draw plateau
-        gc.setForeground(profile.getPlateauInner());
-        gc.setBackground(profile.getPlateauInner());
-        gc.fillOval(iCenterX - iPlateau, iCenterY - iPlateau, iPlateau * 2, iPlateau * 2);
+        // Draw background
+        KnobImageCache.Key backgroundKey = focused && !overlay ? focusedBackgroundKey : defaultBackgroundKey;
+        Image background = KnobImageCache.get(getDisplay()).get(backgroundKey);
+        if (background == null && KnobImageCache.get(getDisplay()).isEvicted(backgroundKey)) {
+            renderBackground(backgroundKey, imageSize, focused && !overlay ? focusedProfile : defaultProfile);
+            background = KnobImageCache.get(getDisplay()).get(backgroundKey);
+        } else if (background == null) {
+            // Shared backgrounds may be rendered again after eviction by another knob
+            KnobImageCache.get(getDisplay()).await(backgroundKey, this);
+        }
+        if (background == null) {
+            paintPlaceholder(gc, profile, min);
+        } else if (clipX1 < clipX2 && clipY1 < clipY2) {
+            gc.drawImage(background, clipX1, clipY1, clipX2 - clipX1, clipY2 - clipY1, clipX1, clipY1, clipX2 - clipX1, clipY2 - clipY1);
+        }
 
-        // Draw the value indicator
-        Point line = getLineCoordinates(iCenterX, iCenterY, iTick, range.toNearestInternal(value));
-        gc.setForeground(profile.getIndicatorOuter());
-        gc.setForeground(profile.getIndicatorOuter());
-        gc.setLineCap(SWT.CAP_ROUND);
-        gc.setLineWidth(iIndicatorWidth);
-        gc.drawLine(line.x, line.y, iCenterX, iCenterY);
+        // Draw focus
+        if (overlay) {
+            paintOverlay(gc, profile, min);
+        }
 
-        gc.setForeground(profile.getIndicatorInner());
-        gc.setForeground(profile.getIndicatorInner());
-        gc.setLineCap(SWT.CAP_ROUND);
-        gc.setLineWidth(iFocusWidth);
-        gc.drawLine(line.x, line.y, iCenterX, iCenterY);
+        // Draw indicator
+        if (background == null || !paintFrame(gc, backgroundKey, background, profile, min, focused)) {
+            paintIndicator(gc, profile, min, 0, 0, range.toNearestInternal(value));
+        }
+        return background != null;
     }
 
     /**
@@ -721,7 +1318,6 @@ public class Knob<T> extends Canvas {
         double outer = min * 0.1d;
         double plateau = min * 0.1d;
         double indicatorWidth = min / 20d;
-        double stepping = range.getStepping();
         if (indicatorWidth < 1d) indicatorWidth = 1d;
         double tickWidth = indicatorWidth / 3d;
         if (tickWidth < 1d) tickWidth = 1d;
@@ -741,35 +1337,7 @@ public class Knob<T> extends Canvas {
         if ((iCenterX + iPlateau) % 2 == 0) iPlateau++;
 
         // Compute lines for ticks
-        List<Point> ticks11 = new ArrayList<Point>();
-
-        // Adapt
-        Point ap1 = getLineCoordinates(iCenterX, iCenterY, iInner + iOuter / 2 + 1, 0d);
-        Point ap2 = getLineCoordinates(iCenterX, iCenterY, iInner + iOuter / 2 + 1, stepping);
-        int dX = Math.abs(ap1.x - ap2.x);
-        int dY = Math.abs(ap1.y - ap2.y);
-        if (1d / stepping <= 72 && (dX > 5 || dY > 5)) {
-
-            // Ticks matching scale
-            for (double v = 0d; v < 1d; v += stepping) {
-                double tick = range.toNearestInternal(v);
-                ticks11.add(getLineCoordinates(iCenterX, iCenterY, iInner + iOuter / 2 + 1, tick));
-            }
-            double tick = range.toNearestInternal(1d);
-            ticks11.add(getLineCoordinates(iCenterX, iCenterY, iInner + iOuter / 2 + 1, tick));
-
-        } else {
-            // Default
-            ticks11.add(getLineCoordinates(iCenterX, iCenterY, iInner + iOuter / 2 + 1, 0d));
-            ticks11.add(getLineCoordinates(iCenterX, iCenterY, iInner + iOuter / 2 + 1, 0.125d));
-            ticks11.add(getLineCoordinates(iCenterX, iCenterY, iInner + iOuter / 2 + 1, 0.25d));
-            ticks11.add(getLineCoordinates(iCenterX, iCenterY, iInner + iOuter / 2 + 1, 0.375d));
-            ticks11.add(getLineCoordinates(iCenterX, iCenterY, iInner + iOuter / 2 + 1, 0.5d));
-            ticks11.add(getLineCoordinates(iCenterX, iCenterY, iInner + iOuter / 2 + 1, 0.625d));
-            ticks11.add(getLineCoordinates(iCenterX, iCenterY, iInner + iOuter / 2 + 1, 0.75d));
-            ticks11.add(getLineCoordinates(iCenterX, iCenterY, iInner + iOuter / 2 + 1, 0.875d));
-            ticks11.add(getLineCoordinates(iCenterX, iCenterY, iInner + iOuter / 2 + 1, 1.0d));
-        }
+        int[] ticks = getGeometry(width).getTicks();
 
         // Activate anti-aliasing
         gc.setAdvanced(true);
@@ -780,18 +1348,18 @@ public class Knob<T> extends Canvas {
         gc.setBackground(profile.getTick());
         gc.setLineCap(SWT.CAP_FLAT);
         gc.setLineWidth(iTickWidth);
-        for (int i = 0; i < ticks11.size(); i++) {
-            Point p1 = ticks11.get(i);
-            gc.drawLine(p1.x, p1.y, iCenterX, iCenterY);
+        for (int i = 0; i < ticks.length; i += 2) {
+            gc.drawLine(ticks[i], ticks[i + 1], iCenterX, iCenterY);
         }
 
-        // Draw the background
-        KnobRenderer renderer = new KnobRenderer();
-        int transparent = profile.getTransparentByte();
-        Color transparentColor = new Color(getDisplay(), transparent, transparent, transparent); 
-        Image image = renderer.render(getDisplay(), transparentColor, profile, iInner * 2, iInner * 2);
+        // Draw the background, which has an alpha channel
+        Image image;
+        if (renderer == RENDERER_SOFTWARE) {
+            image = new KnobRasterizer().render(getDisplay(), profile, iInner * 2, iInner * 2);
+        } else {
+            image = new KnobRenderer().render(getDisplay(), profile, iInner * 2, iInner * 2);
+        }
         gc.drawImage(image, 0, 0, iInner * 2, iInner * 2, iOuter, iOuter, iInner * 2, iInner * 2);
-        transparentColor.dispose();
         image.dispose();
 
         // Draw circle
@@ -809,4 +1377,372 @@ public class Knob<T> extends Canvas {
         // Return
         return background;
     }
+
+    /**
+     * Copies the pre-rendered frame for the current value, if pre-rendered frames are enabled
+     * 
+     * @param gc
+     * @param backgroundKey
+     * @param background
+     * @param profile
+     * @param min
+     * @param focused
+     * @return Whether the frame has been painted
+     */
+    private boolean paintFrame(GC gc, KnobImageCache.Key backgroundKey, Image background, KnobColorProfile profile, double min, boolean focused) {
+
+        // Check
+        int frames = getFrameCount();
+        int radius = getFrameRadius(min);
+        int side = radius * 2;
+        if (frames == 0 || (long) side * (long) side * (long) frames > MAX_FRAMES_PIXELS) {
+            return false;
+        }
+
+        // Obtain frames
+        if (focused && focusedFramesKey == null) {
+            focusedFramesKey = backgroundKey.getFramesKey(frames, profile);
+            acquireFrames(focusedFramesKey, background, profile, min, frames);
+        } else if (!focused && defaultFramesKey == null) {
+            defaultFramesKey = backgroundKey.getFramesKey(frames, profile);
+            acquireFrames(defaultFramesKey, background, profile, min, frames);
+        }
+        KnobImageCache.Key framesKey = focused ? focusedFramesKey : defaultFramesKey;
+        Image image = KnobImageCache.get(getDisplay()).get(framesKey);
+        if (image == null && KnobImageCache.get(getDisplay()).isEvicted(framesKey)) {
+            KnobImageCache.get(getDisplay()).put(framesKey, paintFrames(background, profile, min, frames));
+            image = KnobImageCache.get(getDisplay()).get(framesKey);
+        }
+        if (image == null) {
+            return false;
+        }
+
+        // Copy
+        int frame = (int) Math.round(range.toNearestInternal(value) * (frames - 1));
+        int columns = getFrameColumns(frames);
+        int center = getCenter(min);
+        gc.drawImage(image, (frame % columns) * side, (frame / columns) * side, side, side,
+                     center - radius, center - radius, side, side);
+        return true;
+    }
+
+    /**
+     * Paints the given number of indicator frames onto copies of the background
+     * 
+     * @param background
+     * @param profile
+     * @param min
+     * @param frames
+     * @return
+     */
+    private Image paintFrames(Image background, KnobColorProfile profile, double min, int frames) {
+
+        int radius = getFrameRadius(min);
+        int side = radius * 2;
+        int center = getCenter(min);
+        int columns = getFrameColumns(frames);
+        int rows = (frames + columns - 1) / columns;
+
+        Image image = new Image(getDisplay(), columns * side, rows * side);
+        GC gc = new GC(image);
+        gc.setAdvanced(true);
+        gc.setAntialias(SWT.ON);
+        for (int frame = 0; frame < frames; frame++) {
+            int x = (frame % columns) * side;
+            int y = (frame / columns) * side;
+            gc.setClipping(x, y, side, side);
+            gc.drawImage(background, center - radius, center - radius, side, side, x, y, side, side);
+            paintIndicator(gc, profile, min, x - center + radius, y - center + radius,
+                           range.toNearestInternal((double) frame / (double) (frames - 1)));
+        }
+        gc.dispose();
+        return image;
+    }
+
+    /**
+     * Paints the plateau and the indicator for the given value
+     * 
+     * @param gc
+     * @param profile
+     * @param min
+     * @param offsetX
+     * @param offsetY
+     * @param value
+     */
+    private void paintIndicator(GC gc, KnobColorProfile profile, double min, int offsetX, int offsetY, double value) {
+
+        // Compute parameters
+        double plateau = min * 0.075d;
+        double indicatorWidth = min / 20d;
+        double focusWidth = indicatorWidth / 1.5d;
+        if (indicatorWidth < 1d) indicatorWidth = 1d;
+
+        // Convert to ints
+        KnobGeometry geometry = getGeometry((int) min);
+        int iCenterX = geometry.getCenter() + offsetX;
+        int iCenterY = geometry.getCenter() + offsetY;
+        int iIndicatorWidth = (int) Math.round(indicatorWidth);
+        int iFocusWidth = (int) Math.round(focusWidth);
+        iIndicatorWidth -= 1 - iIndicatorWidth % 2;
+        if (iIndicatorWidth < 1) iIndicatorWidth = 1;
+        iFocusWidth -= 1 - iFocusWidth % 2;
+        if (iFocusWidth < 1) iFocusWidth = 1;
+        int iPlateau = (int) Math.round(plateau);
+
+        // Draw plateau
+        gc.setForeground(profile.getPlateauInner());
+        gc.setBackground(profile.getPlateauInner());
+        gc.fillOval(iCenterX - iPlateau, iCenterY - iPlateau, iPlateau * 2, iPlateau * 2);
+
+        // Draw the value indicator
+        int iLineX = geometry.getIndicatorX(value) + offsetX;
+        int iLineY = geometry.getIndicatorY(value) + offsetY;
+        gc.setForeground(profile.getIndicatorOuter());
+        gc.setForeground(profile.getIndicatorOuter());
+        gc.setLineCap(SWT.CAP_ROUND);
+        gc.setLineWidth(iIndicatorWidth);
+        gc.drawLine(iLineX, iLineY, iCenterX, iCenterY);
+
+        gc.setForeground(profile.getIndicatorInner());
+        gc.setForeground(profile.getIndicatorInner());
+        gc.setLineCap(SWT.CAP_ROUND);
+        gc.setLineWidth(iFocusWidth);
+        gc.drawLine(iLineX, iLineY, iCenterX, iCenterY);
+    }
+
+    /**
+     * Paints the border of the focused color profile onto the default background
+     * 
+     * @param gc
+     * @param profile
+     * @param min
+     */
+    private void paintOverlay(GC gc, KnobColorProfile profile, double min) {
+        int iInner = (int) Math.round(min * 0.4d) - (int) Math.round(min * 0.4d) % 2;
+        int iOuter = (int) Math.round(min * 0.1d);
+        gc.setForeground(profile.getBorder());
+        gc.setLineWidth(1);
+        gc.drawOval(iOuter, iOuter, iInner * 2, iInner * 2);
+    }
+
+    /**
+     * Paints a simple placeholder, which is displayed while the background is being rendered
+     * 
+     * @param gc
+     * @param profile
+     * @param min
+     */
+    private void paintPlaceholder(GC gc, KnobColorProfile profile, double min) {
+
+        // Compute parameters
+        int size = (int) Math.round(min);
+        int iInner = (int) Math.round(min * 0.4d) - (int) Math.round(min * 0.4d) % 2;
+        int iOuter = (int) Math.round(min * 0.1d);
+
+        // Draw
+        gc.setBackground(getBackground());
+        gc.fillRectangle(0, 0, size, size);
+        gc.setBackground(profile.getBackground());
+        gc.fillOval(iOuter, iOuter, iInner * 2, iInner * 2);
+        gc.setForeground(profile.getBorder());
+        gc.setLineWidth(1);
+        gc.drawOval(iOuter, iOuter, iInner * 2, iInner * 2);
+    }
+
+    /**
+     * Redraws the area covered by the indicator at the previous and at the current value
+     * 
+     * @param previous
+     */
+    private void redrawIndicator(double previous) {
+
+        // Small knobs are scaled and cached as a whole
+        Point size = getSize();
+        if (size.x < SCALE_DOWN || size.y < SCALE_DOWN) {
+            redraw();
+            return;
+        }
+
+        // Union of the plateau and both indicators
+        int min = Math.round(Math.min(size.x, size.y) * scale);
+        KnobGeometry geometry = getGeometry(min);
+        double from = range.toNearestInternal(previous);
+        double to = range.toNearestInternal(value);
+        int center = geometry.getCenter();
+        int plateau = (int) Math.round(min * 0.075d);
+        int margin = (int) Math.round(Math.max(min / 20d, 1d)) + 1;
+        int x1 = Math.min(center - plateau, Math.min(geometry.getIndicatorX(from), geometry.getIndicatorX(to)) - margin);
+        int y1 = Math.min(center - plateau, Math.min(geometry.getIndicatorY(from), geometry.getIndicatorY(to)) - margin);
+        int x2 = Math.max(center + plateau, Math.max(geometry.getIndicatorX(from), geometry.getIndicatorX(to)) + margin) + 1;
+        int y2 = Math.max(center + plateau, Math.max(geometry.getIndicatorY(from), geometry.getIndicatorY(to)) + margin) + 1;
+
+        // Convert to display coordinates
+        x1 = (int) Math.floor(x1 / scale);
+        y1 = (int) Math.floor(y1 / scale);
+        x2 = (int) Math.ceil(x2 / scale);
+        y2 = (int) Math.ceil(y2 / scale);
+        redraw(x1, y1, x2 - x1, y2 - y1, false);
+    }
+
+    /**
+     * Releases both backgrounds
+     */
+    private void releaseBackgrounds() {
+        releaseDefaultBackground();
+        releaseFocusedBackground();
+    }
+
+    /**
+     * Releases the default background
+     */
+    private void releaseDefaultBackground() {
+        releaseDefaultFrames();
+        releaseSmallImages();
+        if (focusOverlay) releaseFocusedFrames();
+        if (defaultBackgroundKey != null) {
+            KnobImageCache.get(getDisplay()).release(defaultBackgroundKey);
+        }
+        defaultBackgroundKey = null;
+    }
+
+    /**
+     * Releases the focused background
+     */
+    private void releaseFocusedBackground() {
+        releaseFocusedFrames();
+        releaseSmallImages();
+        if (focusedBackgroundKey != null) {
+            KnobImageCache.get(getDisplay()).release(focusedBackgroundKey);
+        }
+        focusedBackgroundKey = null;
+    }
+
+    /**
+     * Releases the default indicator frames
+     */
+    private void releaseDefaultFrames() {
+        if (defaultFramesKey != null) {
+            KnobImageCache.get(getDisplay()).release(defaultFramesKey);
+        }
+        defaultFramesKey = null;
+    }
+
+    /**
+     * Releases the focused indicator frames
+     */
+    private void releaseFocusedFrames() {
+        if (focusedFramesKey != null) {
+            KnobImageCache.get(getDisplay()).release(focusedFramesKey);
+        }
+        focusedFramesKey = null;
+    }
+
+    /**
+     * Releases the background, which has been retained while resizing
+     */
+    private void releaseResizeBackground() {
+        if (resizeKey != null) {
+            getDisplay().timerExec(-1, resizeTimer);
+            getDisplay().removeFilter(SWT.MouseUp, resizeFilter);
+            KnobImageCache.get(getDisplay()).release(resizeKey);
+        }
+        resizeKey = null;
+    }
+
+    /**
+     * Releases the downscaled images of small knobs
+     */
+    private void releaseSmallImages() {
+        if (smallImages != null) {
+            for (Image image : smallImages) {
+                if (image != null && !image.isDisposed()) image.dispose();
+            }
+        }
+        if (smallOffscreen != null && !smallOffscreen.isDisposed()) {
+            smallOffscreen.dispose();
+        }
+        smallImages = null;
+        smallOffscreen = null;
+    }
+
+    /**
+     * Releases the transform for the scale factor of the monitor
+     */
+    private void releaseTransform() {
+        if (transform != null) {
+            KnobTransforms.get(getDisplay()).release(scale);
+        }
+        transform = null;
+    }
+
+    /**
+     * Renders the background for the given key and adds it to the display's image cache. When rendering
+     * asynchronously, the knob will be redrawn as soon as the background is ready.
+     * 
+     * @param key
+     * @param size
+     * @param profile
+     */
+    private void renderBackground(KnobImageCache.Key key, int size, KnobColorProfile profile) {
+        KnobImageCache cache = KnobImageCache.get(getDisplay());
+        cache.getStatistics().backgroundRendered();
+        if (asynchronous) {
+            cache.submit(key, new KnobBackground(size, profile.getPackedColors(), getBackground().getRGB(), getGeometry(size).getTicks(), renderer), this);
+        } else {
+            cache.put(key, paintBackground(size, size, profile));
+        }
+    }
+
+    /**
+     * Retains the background, which is currently displayed, so that it can be scaled while the knob
+     * is being resized. Backgrounds are rendered at the new size, when the size has been stable for
+     * {@link #RESIZE_DELAY} milliseconds or when the mouse is released. Nothing is retained, if no
+     * background has been displayed yet, e.g. when the knob is laid out for the first time.
+     */
+    private void retainResizeBackground() {
+        KnobImageCache cache = KnobImageCache.get(getDisplay());
+        if (resizeKey == null) {
+            KnobImageCache.Key key = isFocusControl() && !focusOverlay ? focusedBackgroundKey : defaultBackgroundKey;
+            if (!cache.retain(key)) {
+                return;
+            }
+            resizeKey = key;
+            getDisplay().addFilter(SWT.MouseUp, resizeFilter);
+        }
+        getDisplay().timerExec(RESIZE_DELAY, resizeTimer);
+    }
+
+    /**
+     * Schedules a redraw of the indicator with the next frame
+     * 
+     * @param previous
+     */
+    private void scheduleRedraw(double previous) {
+        KnobRedrawScheduler scheduler = KnobRedrawScheduler.get(getDisplay());
+        if (scheduler.getRate() == 0) {
+            redrawIndicator(previous);
+        } else if (!redrawPending) {
+            redrawPending = true;
+            redrawValue = previous;
+            scheduler.schedule(this);
+        }
+    }
+
+    /**
+     * Updates the scale factor, if the knob has been moved to a different monitor. Backgrounds
+     * are only released, if the scale factor of the new monitor differs.
+     */
+    private void updateScale() {
+        Monitor monitor = getMonitor();
+        if (!monitor.equals(this.monitor)) {
+            this.monitor = monitor;
+            float scale = KnobScaling.getScale(getDisplay(), monitor);
+            if (scale != this.scale) {
+                releaseTransform();
+                this.scale = scale;
+                releaseBackgrounds();
+                redraw();
+            }
+        }
+    }
 }
@@ -0,0 +1,251 @@
+/* ******************************************************************************
+ * Copyright (c) 2014 - 2015 Fabian Prasser.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Fabian Prasser - initial API and implementation
+ ******************************************************************************/
+
+package de.linearbits.swt.widgets;
+
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.RGB;
+
+/**
+ * This class renders the complete background of a knob (ticks, body, border and plateau) in software.
+ * All parameters are captured on construction, which means that instances can be rendered on any thread.
+ * The result matches the background painted by the knob with a GC.
+ *
+ * @author Fabian Prasser
+ */
+class KnobBackground implements KnobImageCache.Job {
+
+    /**
+     * Clamps the value to [0, 1]
+     * @param value
+     * @return
+     */
+    private static double clamp(double value) {
+        return value < 0d ? 0d : (value > 1d ? 1d : value);
+    }
+
+    /** Size in pixels */
+    private final int   size;
+    /** Packed colors of the profile */
+    private final int[] profile;
+    /** Background color */
+    private final int   background;
+    /** End points of the ticks, as x, y pairs */
+    private final int[] ticks;
+    /** Renderer for the body */
+    private final int   renderer;
+
+    /**
+     * Creates a new instance
+     *
+     * @param size
+     * @param profile Packed colors of the profile
+     * @param background
+     * @param ticks End points of the ticks, as x, y pairs
+     * @param renderer
+     */
+    KnobBackground(int size, int[] profile, RGB background, int[] ticks, int renderer) {
+        this.size = size;
+        this.profile = profile;
+        this.background = (background.red << 16) | (background.green << 8) | background.blue;
+        this.ticks = ticks;
+        this.renderer = renderer;
+    }
+
+    @Override
+    public ImageData render() {
+
+        // Compute parameters
+        double min = size;
+        double inner = min * 0.4d;
+        double outer = min * 0.1d;
+        double plateau = min * 0.1d;
+        double indicatorWidth = min / 20d;
+        if (indicatorWidth < 1d) indicatorWidth = 1d;
+        double tickWidth = indicatorWidth / 3d;
+        if (tickWidth < 1d) tickWidth = 1d;
+
+        // Convert to ints
+        int iInner = (int) Math.round(inner) - (int) Math.round(inner) % 2;
+        int iOuter = (int) Math.round(outer);
+        int iPlateau = (int) Math.round(plateau);
+        int iCenter = iOuter + iInner;
+        int iTickWidth = (int) Math.round(tickWidth);
+        iTickWidth -= 1 - iTickWidth % 2;
+        if (iTickWidth < 1d) iTickWidth = 1;
+        if ((iCenter + iPlateau) % 2 == 0) iPlateau++;
+
+        // Fill
+        int[] pixels = new int[size * size];
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = background;
+        }
+
+        // Draw the ticks. Lines with odd widths are drawn through pixel centers
+        int tick = profile[KnobColorProfile.INDEX_TICK];
+        for (int i = 0; i < ticks.length; i += 2) {
+            drawLine(pixels, ticks[i] + 0.5d, ticks[i + 1] + 0.5d, iCenter + 0.5d, iCenter + 0.5d, iTickWidth, tick);
+        }
+
+        // Draw the body
+        int diameter = iInner * 2;
+        if (diameter > 0) {
+            int[] body;
+            if (renderer == Knob.RENDERER_SOFTWARE) {
+                body = new KnobRasterizer().render(profile, diameter, diameter);
+            } else {
+                body = new KnobRenderer().render(profile, diameter, diameter);
+            }
+            drawBody(pixels, body, diameter, iOuter);
+        }
+
+        // Draw circle
+        drawCircle(pixels, iCenter + 0.5d, iCenter + 0.5d, iInner, profile[KnobColorProfile.INDEX_BORDER]);
+
+        // Draw plateau
+        fillCircle(pixels, iCenter, iCenter, iPlateau, profile[KnobColorProfile.INDEX_PLATEAU_OUTER]);
+
+        // Convert
+        ImageData data = new ImageData(size, size, 24, new PaletteData(0xFF0000, 0xFF00, 0xFF));
+        byte[] target = data.data;
+        for (int y = 0; y < size; y++) {
+            int source = y * size;
+            int index = y * data.bytesPerLine;
+            for (int x = 0; x < size; x++) {
+                int pixel = pixels[source++];
+                target[index++] = (byte) (pixel >> 16);
+                target[index++] = (byte) (pixel >> 8);
+                target[index++] = (byte) pixel;
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Blends the color onto the pixel at the given index
+     *
+     * @param pixels
+     * @param index
+     * @param color
+     * @param alpha
+     */
+    private void blend(int[] pixels, int index, int color, double alpha) {
+        if (alpha <= 0d) return;
+        int pixel = pixels[index];
+        double inverse = 1d - alpha;
+        int r = (int) Math.round(((color >> 16) & 0xFF) * alpha + ((pixel >> 16) & 0xFF) * inverse);
+        int g = (int) Math.round(((color >> 8) & 0xFF) * alpha + ((pixel >> 8) & 0xFF) * inverse);
+        int b = (int) Math.round((color & 0xFF) * alpha + (pixel & 0xFF) * inverse);
+        pixels[index] = (r << 16) | (g << 8) | b;
+    }
+
+    /**
+     * Draws the body, which is rotated by 180 degrees, like in the GC-based rendering
+     *
+     * @param pixels
+     * @param body
+     * @param diameter
+     * @param offset
+     */
+    private void drawBody(int[] pixels, int[] body, int diameter, int offset) {
+        for (int y = 0; y < diameter; y++) {
+            int source = (diameter - y - 1) * diameter + diameter - 1;
+            int index = (offset + y) * size + offset;
+            for (int x = 0; x < diameter; x++) {
+                int pixel = body[source--];
+                blend(pixels, index++, pixel, (double) (pixel >>> 24) / 255d);
+            }
+        }
+    }
+
+    /**
+     * Draws a circle with a line width of one
+     *
+     * @param pixels
+     * @param centerX
+     * @param centerY
+     * @param radius
+     * @param color
+     */
+    private void drawCircle(int[] pixels, double centerX, double centerY, double radius, int color) {
+        int x0 = Math.max(0, (int) Math.floor(centerX - radius - 1d));
+        int y0 = Math.max(0, (int) Math.floor(centerY - radius - 1d));
+        int x1 = Math.min(size - 1, (int) Math.ceil(centerX + radius + 1d));
+        int y1 = Math.min(size - 1, (int) Math.ceil(centerY + radius + 1d));
+        for (int y = y0; y <= y1; y++) {
+            double dY = y + 0.5d - centerY;
+            for (int x = x0; x <= x1; x++) {
+                double dX = x + 0.5d - centerX;
+                double distance = Math.sqrt(dX * dX + dY * dY);
+                blend(pixels, y * size + x, color, clamp(1d - Math.abs(distance - radius)));
+            }
+        }
+    }
+
+    /**
+     * Draws a line with flat caps
+     *
+     * @param pixels
+     * @param fromX
+     * @param fromY
+     * @param toX
+     * @param toY
+     * @param width
+     * @param color
+     */
+    private void drawLine(int[] pixels, double fromX, double fromY, double toX, double toY, double width, int color) {
+        double dX = toX - fromX;
+        double dY = toY - fromY;
+        double length = Math.sqrt(dX * dX + dY * dY);
+        if (length == 0d) return;
+        dX /= length;
+        dY /= length;
+        double half = width / 2d;
+        int x0 = Math.max(0, (int) Math.floor(Math.min(fromX, toX) - half - 1d));
+        int y0 = Math.max(0, (int) Math.floor(Math.min(fromY, toY) - half - 1d));
+        int x1 = Math.min(size - 1, (int) Math.ceil(Math.max(fromX, toX) + half + 1d));
+        int y1 = Math.min(size - 1, (int) Math.ceil(Math.max(fromY, toY) + half + 1d));
+        for (int y = y0; y <= y1; y++) {
+            double pY = y + 0.5d - fromY;
+            for (int x = x0; x <= x1; x++) {
+                double pX = x + 0.5d - fromX;
+                double along = pX * dX + pY * dY;
+                double across = Math.abs(pX * dY - pY * dX);
+                double coverage = clamp(along + 0.5d) * clamp(length - along + 0.5d) * clamp(half - across + 0.5d);
+                blend(pixels, y * size + x, color, coverage);
+            }
+        }
+    }
+
+    /**
+     * Fills a circle
+     *
+     * @param pixels
+     * @param centerX
+     * @param centerY
+     * @param radius
+     * @param color
+     */
+    private void fillCircle(int[] pixels, double centerX, double centerY, double radius, int color) {
+        int x0 = Math.max(0, (int) Math.floor(centerX - radius - 1d));
+        int y0 = Math.max(0, (int) Math.floor(centerY - radius - 1d));
+        int x1 = Math.min(size - 1, (int) Math.ceil(centerX + radius + 1d));
+        int y1 = Math.min(size - 1, (int) Math.ceil(centerY + radius + 1d));
+        for (int y = y0; y <= y1; y++) {
+            double dY = y + 0.5d - centerY;
+            for (int x = x0; x <= x1; x++) {
+                double dX = x + 0.5d - centerX;
+                blend(pixels, y * size + x, color, clamp(radius - Math.sqrt(dX * dX + dY * dY) + 0.5d));
+            }
+        }
+    }
+}
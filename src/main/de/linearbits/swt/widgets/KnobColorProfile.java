@@ -24,6 +24,35 @@ import org.eclipse.swt.widgets.Display;
  */
 public class KnobColorProfile {
 
+    /** Index of the color in packed representations */
+    static final int INDEX_BACKGROUND           = 0;
+    /** Index of the color in packed representations */
+    static final int INDEX_BORDER               = 1;
+    /** Index of the color in packed representations */
+    static final int INDEX_EDGE_FROM            = 2;
+    /** Index of the color in packed representations */
+    static final int INDEX_EDGE_TO              = 3;
+    /** Index of the color in packed representations */
+    static final int INDEX_HIGHLIGHT_BOTTOM     = 4;
+    /** Index of the color in packed representations */
+    static final int INDEX_HIGHLIGHT_INNER_FROM = 5;
+    /** Index of the color in packed representations */
+    static final int INDEX_HIGHLIGHT_INNER_TO   = 6;
+    /** Index of the color in packed representations */
+    static final int INDEX_HIGHLIGHT_SPECULAR   = 7;
+    /** Index of the color in packed representations */
+    static final int INDEX_INDICATOR_INNER      = 8;
+    /** Index of the color in packed representations */
+    static final int INDEX_INDICATOR_OUTER      = 9;
+    /** Index of the color in packed representations */
+    static final int INDEX_PLATEAU_INNER        = 10;
+    /** Index of the color in packed representations */
+    static final int INDEX_PLATEAU_OUTER        = 11;
+    /** Index of the color in packed representations */
+    static final int INDEX_SHADOW               = 12;
+    /** Index of the color in packed representations */
+    static final int INDEX_TICK                 = 13;
+
     /**
      * Creates a default profile
      * @return
@@ -198,6 +227,12 @@ public class KnobColorProfile {
     /** Is the profile disposed*/
     private boolean disposed = false;
 
+    /** Cached packed colors, null if not computed*/
+    private int[] packedColors = null;
+
+    /** Cached transparent byte, -1 if not computed*/
+    private int transparentByte = -1;
+
     /**
      * Checks all colors
      */
@@ -239,6 +274,7 @@ public class KnobColorProfile {
          if (plateauOuter != null && !plateauOuter.isDisposed()) plateauOuter.dispose();
          if (shadow != null && !shadow.isDisposed()) shadow.dispose();
          if (tick != null && !tick.isDisposed()) tick.dispose();
+         invalidate();
          disposed = true;
     }
 
@@ -384,6 +420,7 @@ public class KnobColorProfile {
         checkDisposed();
         checkNull(color);
         this.background = color;
+        invalidate();
         return this;
     }
     
@@ -395,6 +432,7 @@ public class KnobColorProfile {
         checkDisposed();
         checkNull(color);
         this.border = color;
+        invalidate();
         return this;
     }
 
@@ -406,6 +444,7 @@ public class KnobColorProfile {
         checkDisposed();
         checkNull(color);
         this.edgeFrom = color;
+        invalidate();
         return this;
     }
     
@@ -417,6 +456,7 @@ public class KnobColorProfile {
         checkDisposed();
         checkNull(color);
         this.edgeTo = color;
+        invalidate();
         return this;
     }
     
@@ -428,6 +468,7 @@ public class KnobColorProfile {
         checkDisposed();
         checkNull(color);
         this.highlightBottom = color;
+        invalidate();
         return this;
     }
     
@@ -439,6 +480,7 @@ public class KnobColorProfile {
         checkDisposed();
         checkNull(color);
         this.highlightInnerFrom = color;
+        invalidate();
         return this;
     }
 
@@ -450,6 +492,7 @@ public class KnobColorProfile {
         checkDisposed();
         checkNull(color);
         this.highlightInnerTo = color;
+        invalidate();
         return this;
     }
 
@@ -461,6 +504,7 @@ public class KnobColorProfile {
         checkDisposed();
         checkNull(color);
         this.highlightSpecular = color;
+        invalidate();
         return this;
     }
     
@@ -472,6 +516,7 @@ public class KnobColorProfile {
         checkDisposed();
         checkNull(color);
         this.indicatorInner = color;
+        invalidate();
         return this;
     }
 
@@ -483,6 +528,7 @@ public class KnobColorProfile {
         checkDisposed();
         checkNull(color);
         this.indicatorOuter = color;
+        invalidate();
         return this;
     }
     
@@ -494,6 +540,7 @@ public class KnobColorProfile {
         checkDisposed();
         checkNull(color);
         this.plateauInner = color;
+        invalidate();
         return this;
     }
 
@@ -505,6 +552,7 @@ public class KnobColorProfile {
         checkDisposed();
         checkNull(color);
         this.plateauOuter = color;
+        invalidate();
         return this;
     }
     
@@ -516,6 +564,7 @@ public class KnobColorProfile {
         checkDisposed();
         checkNull(color);
         this.shadow = color;
+        invalidate();
         return this;
     }
 
@@ -527,6 +576,7 @@ public class KnobColorProfile {
         checkDisposed();
         checkNull(color);
         this.tick = color;
+        invalidate();
         return this;
     }
     
@@ -546,29 +596,61 @@ public class KnobColorProfile {
     }
 
     /**
-     * Returns a byte b, such that (b,b,b) is not part of the profile
+     * Invalidates all values, which are derived from the colors
+     */
+    private void invalidate() {
+        transparentByte = -1;
+        packedColors = null;
+    }
+
+    /**
+     * Returns all colors of this profile in a fixed order
+     * @return
+     */
+    Color[] getColors() {
+        checkDisposed();
+        return new Color[] { background, border, edgeFrom, edgeTo, highlightBottom, highlightInnerFrom, highlightInnerTo,
+                             highlightSpecular, indicatorInner, indicatorOuter, plateauInner, plateauOuter, shadow, tick };
+    }
+
+    /**
+     * Returns all colors of this profile packed into ints (0xRRGGBB), in the
+     * order defined by the INDEX_* constants. The array is cached and must not be modified.
+     * @return
+     */
+    int[] getPackedColors() {
+        checkDisposed();
+        if (packedColors == null) {
+            Color[] colors = getColors();
+            int[] result = new int[colors.length];
+            for (int i = 0; i < colors.length; i++) {
+                result[i] = (colors[i].getRed() << 16) | (colors[i].getGreen() << 8) | colors[i].getBlue();
+            }
+            packedColors = result;
+        }
+        return packedColors;
+    }
+
+    /**
+     * Returns a byte b, such that (b,b,b) is not part of the profile. The byte is computed once
+     * and cached until a color is changed.
      * @return
      */
     protected int getTransparentByte(){
         checkDisposed();
-        int i;
-        for (i=0; i<256; i++) {
-            if (background.getRed() == i || background.getGreen() == i || background.getBlue() == i) continue;
-            if (border.getRed() == i || border.getGreen() == i || border.getBlue() == i) continue;
-            if (edgeFrom.getRed() == i || edgeFrom.getGreen() == i || edgeFrom.getBlue() == i) continue;
-            if (edgeTo.getRed() == i || edgeTo.getGreen() == i || edgeTo.getBlue() == i) continue;
-            if (highlightBottom.getRed() == i || highlightBottom.getGreen() == i || highlightBottom.getBlue() == i) continue;
-            if (highlightInnerFrom.getRed() == i || highlightInnerFrom.getGreen() == i || highlightInnerFrom.getBlue() == i) continue;
-            if (highlightInnerTo.getRed() == i || highlightInnerTo.getGreen() == i || highlightInnerTo.getBlue() == i) continue;
-            if (highlightSpecular.getRed() == i || highlightSpecular.getGreen() == i || highlightSpecular.getBlue() == i) continue;
-            if (indicatorInner.getRed() == i || indicatorInner.getGreen() == i || indicatorInner.getBlue() == i) continue;
-            if (indicatorOuter.getRed() == i || indicatorOuter.getGreen() == i || indicatorOuter.getBlue() == i) continue;
-            if (plateauInner.getRed() == i || plateauInner.getGreen() == i || plateauInner.getBlue() == i) continue;
-            if (plateauOuter.getRed() == i || plateauOuter.getGreen() == i || plateauOuter.getBlue() == i) continue;
-            if (shadow.getRed() == i || shadow.getGreen() == i || shadow.getBlue() == i) continue;
-            if (tick.getRed() == i || tick.getGreen() == i || tick.getBlue() == i) continue;
-            break;
+        if (transparentByte < 0) {
+            boolean[] used = new boolean[256];
+            for (int color : getPackedColors()) {
+                used[(color >> 16) & 0xFF] = true;
+                used[(color >> 8) & 0xFF] = true;
+                used[color & 0xFF] = true;
+            }
+            int i = 0;
+            while (i < used.length && used[i]) {
+                i++;
+            }
+            transparentByte = i;
         }
-        return i;
+        return transparentByte;
     }
 }
@@ -0,0 +1,96 @@
+/* ******************************************************************************
+ * Copyright (c) 2014 - 2015 Fabian Prasser.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Fabian Prasser - initial API and implementation
+ ******************************************************************************/
+
+package de.linearbits.swt.widgets;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.Cursor;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.RGB;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Manages the cursors used by knobs. There is one instance per display, which is shared by all
+ * knobs on this display. Cursors are created lazily and disposed when the display is disposed.
+ * Knobs must therefore not dispose them.
+ *
+ * @author Fabian Prasser
+ */
+class KnobCursors {
+
+    /** Key for storing the cursors with the display */
+    private static final String KEY = KnobCursors.class.getName();
+
+    /**
+     * Returns the cursors for the given display
+     *
+     * @param display
+     * @return
+     */
+    static KnobCursors get(Display display) {
+        KnobCursors cursors = (KnobCursors) display.getData(KEY);
+        if (cursors == null) {
+            final KnobCursors result = new KnobCursors(display);
+            display.setData(KEY, result);
+            display.disposeExec(new Runnable() {
+                @Override
+                public void run() {
+                    result.dispose();
+                }
+            });
+            cursors = result;
+        }
+        return cursors;
+    }
+
+    /** Display */
+    private final Display display;
+    /** The invisible cursor */
+    private Cursor        hidden;
+
+    /**
+     * Creates a new instance
+     *
+     * @param display
+     */
+    private KnobCursors(Display display) {
+        this.display = display;
+    }
+
+    /**
+     * Returns an invisible cursor
+     *
+     * @return
+     */
+    Cursor getHiddenCursor() {
+        if (hidden == null) {
+            Color white = display.getSystemColor(SWT.COLOR_WHITE);
+            Color black = display.getSystemColor(SWT.COLOR_BLACK);
+            PaletteData palette = new PaletteData(new RGB[] { white.getRGB(), black.getRGB() });
+            ImageData sourceData = new ImageData(16, 16, 1, palette);
+            sourceData.transparentPixel = 0;
+            hidden = new Cursor(display, sourceData, 0, 0);
+        }
+        return hidden;
+    }
+
+    /**
+     * Disposes all cursors
+     */
+    private void dispose() {
+        if (hidden != null && !hidden.isDisposed()) {
+            hidden.dispose();
+        }
+        hidden = null;
+    }
+}
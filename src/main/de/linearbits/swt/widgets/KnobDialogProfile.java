@@ -36,6 +36,7 @@ public class KnobDialogProfile {
         profile.setMessage("Bitte geben Sie eine [type] im Bereich [range] ein:");
         profile.setInteger("Ganzzahl");
         profile.setDecimal("Gleitkommazahl");
+        profile.setOption("Option");
         profile.setTitle("Eingabemaske");
         return profile;
     }
@@ -48,6 +49,8 @@ public class KnobDialogProfile {
     private String integer = "an integer";
     /** Decimal*/
     private String decimal = "a decimal";
+    /** Option*/
+    private String option = "an option";
     /** Formatter*/
     private NumberFormat formatter = null;
 
@@ -59,6 +62,7 @@ public class KnobDialogProfile {
         if (decimal==null) throw new NullPointerException("Text for 'decimal' not specified");
         if (integer==null) throw new NullPointerException("Text for 'integer' not specified");
         if (message==null) throw new NullPointerException("Text for 'message' not specified");
+        if (option==null) throw new NullPointerException("Text for 'option' not specified");
         if (title==null) throw new NullPointerException("Text for 'title' not specified");
     }
 
@@ -89,7 +93,7 @@ public class KnobDialogProfile {
 
     /**
      * Returns the message. "[type]" will be replaced by a text for the datatype, defined
-     * via setDecimal() and setInteger(), and "[range]" will be replaced by the range.
+     * via setDecimal(), setInteger() and setOption(), and "[range]" will be replaced by the range.
      * Default is:  "Please enter a [type] in range [range]:"
      * @return
      */
@@ -97,6 +101,14 @@ public class KnobDialogProfile {
         return message;
     }
 
+    /**
+     * Returns the text for values of enumerations. Default is: "an option"
+     * @return
+     */
+    public String getOption() {
+        return option;
+    }
+
     /**
      * Returns the title of the dialog
      * @return
@@ -137,7 +149,7 @@ public class KnobDialogProfile {
 
     /**
      * Sets the message. "[type]" will be replaced by a text for the datatype, defined
-     * via setDecimal() and setInteger(), and "[range]" will be replaced by the range.
+     * via setDecimal(), setInteger() and setOption(), and "[range]" will be replaced by the range.
      * Default is:  "Please enter a [type] in range [range]:"
      * @return
      */
@@ -147,6 +159,16 @@ public class KnobDialogProfile {
         return this;
     }
     
+    /**
+     * Sets the text for values of enumerations. Default is: "an option"
+     * @return
+     */
+    public KnobDialogProfile setOption(String value) {
+        checkNull(value);
+        this.option = value;
+        return this;
+    }
+    
     /**
      * Sets the title of the dialog. Default is: "Input Dialog"
      * @param title
@@ -0,0 +1,207 @@
+/* ******************************************************************************
+ * Copyright (c) 2014 - 2015 Fabian Prasser.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Fabian Prasser - initial API and implementation
+ ******************************************************************************/
+
+package de.linearbits.swt.widgets;
+
+/**
+ * The geometry of a knob of a given size with a given range. It holds the end points of
+ * the ticks and a table of end points of the indicator, which is sampled densely enough
+ * that adjacent entries are less than a pixel apart. Repainting a knob thus neither
+ * requires evaluating trigonometric functions nor allocating objects.
+ *
+ * @author Fabian Prasser
+ */
+class KnobGeometry {
+
+    /** Design */
+    private static final int CUT_OFF   = 90;
+    /** Maximal number of ticks derived from the stepping */
+    private static final int MAX_TICKS = 72;
+
+    /**
+     * Calculates the coordinates of the end of a line from the center to the
+     * edge of the knob for the given value, and stores them at the given index
+     *
+     * @param coordinates
+     * @param index
+     * @param center
+     * @param radius
+     * @param value
+     */
+    private static void setLineCoordinates(int[] coordinates, int index, int center, int radius, double value) {
+
+        value *= 1 - CUT_OFF / 360d;
+        value += CUT_OFF / 720d;
+
+        double r = (double) radius;
+        double x = r * Math.sin(-value * 2d * Math.PI);
+        double y = r * Math.cos(-value * 2d * Math.PI);
+        coordinates[index * 2] = (int) Math.round(x + center);
+        coordinates[index * 2 + 1] = (int) Math.round(y + center);
+    }
+
+    /** The size */
+    private final int          size;
+    /** The range */
+    private final KnobRange<?> range;
+    /** The center */
+    private final int          center;
+    /** End points of the ticks, as x, y pairs */
+    private final int[]        ticks;
+    /** End points of the indicator at equidistant values, as x, y pairs */
+    private final int[]        indicator;
+    /** Number of intervals of the indicator table */
+    private final int          resolution;
+
+    /**
+     * Computes the geometry
+     *
+     * @param size
+     * @param range
+     */
+    KnobGeometry(int size, KnobRange<?> range) {
+
+        this.size = size;
+        this.range = range;
+
+        // Compute parameters
+        double inner = size * 0.4d;
+        double outer = size * 0.1d;
+        int iInner = (int) Math.round(inner) - (int) Math.round(inner) % 2;
+        int iOuter = (int) Math.round(outer);
+        int iTick = (int) Math.round(size * 0.3d);
+        this.center = iOuter + iInner;
+        this.ticks = getTicks(iInner + iOuter / 2 + 1);
+
+        // Sample the indicator with at least two values per pixel of the arc
+        double arc = 2d * Math.PI * iTick * (1d - CUT_OFF / 360d);
+        this.resolution = Math.max(1, (int) Math.ceil(arc * 2d));
+        this.indicator = new int[(resolution + 1) * 2];
+        for (int i = 0; i <= resolution; i++) {
+            setLineCoordinates(indicator, i, center, iTick, (double) i / (double) resolution);
+        }
+    }
+
+    /**
+     * Returns the coordinate of the center
+     *
+     * @return
+     */
+    int getCenter() {
+        return center;
+    }
+
+    /**
+     * Returns the x coordinate of the end of the indicator for the given value
+     *
+     * @param value
+     * @return
+     */
+    int getIndicatorX(double value) {
+        return indicator[getIndex(value) * 2];
+    }
+
+    /**
+     * Returns the y coordinate of the end of the indicator for the given value
+     *
+     * @param value
+     * @return
+     */
+    int getIndicatorY(double value) {
+        return indicator[getIndex(value) * 2 + 1];
+    }
+
+    /**
+     * Returns the end points of the ticks, as x, y pairs. The array must not be modified.
+     *
+     * @return
+     */
+    int[] getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Returns whether this geometry has been computed for the given size and range
+     *
+     * @param size
+     * @param range
+     * @return
+     */
+    boolean matches(int size, KnobRange<?> range) {
+        return this.size == size && this.range == range;
+    }
+
+    /**
+     * Returns the index of the entry of the indicator table for the given value
+     *
+     * @param value
+     * @return
+     */
+    private int getIndex(double value) {
+        if (value <= 0d) {
+            return 0;
+        } else if (value >= 1d) {
+            return resolution;
+        }
+        return (int) (value * resolution + 0.5d);
+    }
+
+    /**
+     * Computes the end points of the ticks
+     *
+     * @param radius
+     * @return
+     */
+    private int[] getTicks(int radius) {
+
+        // Ticks defined by the range
+        double[] positions = range.getTickPositions();
+        if (positions != null) {
+            int[] result = new int[positions.length * 2];
+            for (int i = 0; i < positions.length; i++) {
+                setLineCoordinates(result, i, center, radius, positions[i]);
+            }
+            return result;
+        }
+
+        // Adapt
+        double stepping = range.getStepping();
+        int[] adapt = new int[4];
+        setLineCoordinates(adapt, 0, center, radius, 0d);
+        setLineCoordinates(adapt, 1, center, radius, stepping);
+        int dX = Math.abs(adapt[0] - adapt[2]);
+        int dY = Math.abs(adapt[1] - adapt[3]);
+        if (1d / stepping <= MAX_TICKS && (dX > 5 || dY > 5)) {
+
+            // Ticks matching scale
+            int count = 0;
+            for (double v = 0d; v < 1d; v += stepping) {
+                count++;
+            }
+            int[] result = new int[(count + 1) * 2];
+            int index = 0;
+            for (double v = 0d; v < 1d; v += stepping) {
+                setLineCoordinates(result, index++, center, radius, range.toNearestInternal(v));
+            }
+            setLineCoordinates(result, index, center, radius, range.toNearestInternal(1d));
+            return result;
+
+        } else {
+
+            // Default
+            int[] result = new int[9 * 2];
+            for (int i = 0; i < 9; i++) {
+                setLineCoordinates(result, i, center, radius, i * 0.125d);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,717 @@
+/* ******************************************************************************
+ * Copyright (c) 2014 - 2015 Fabian Prasser.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Fabian Prasser - initial API and implementation
+ ******************************************************************************/
+
+package de.linearbits.swt.widgets;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.eclipse.swt.SWTException;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.RGB;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * A cache for images rendered by knobs. There is one instance per display, which is shared by all
+ * knobs on this display. Images are reference counted. When no knob uses an image anymore, it is
+ * retained, so that knobs switching back and forth between a few sizes, e.g. in compact and expanded
+ * layouts, find their backgrounds for all of these sizes in the cache. All images share a budget. When
+ * it is exceeded, the least recently used images are disposed, preferring images which are not
+ * referenced. Knobs render evicted images again on demand. All images are disposed when the display
+ * is disposed. Images can either be rendered on the UI thread and
+ * added to the cache, or be rendered by jobs that are executed on a shared fork/join pool.
+ *
+ * @author Fabian Prasser
+ */
+class KnobImageCache {
+
+    /**
+     * A key for a cached image
+     *
+     * @author Fabian Prasser
+     */
+    static class Key {
+
+        /** Size in pixels */
+        private final int      size;
+        /** Scale factor in percent */
+        private final int      zoom;
+        /** Content of the color profile */
+        private final int[]    profile;
+        /** Stepping of the range */
+        private final double   stepping;
+        /** Tick positions of the range */
+        private final double[] ticks;
+        /** Background color */
+        private final int      background;
+        /** Focus state */
+        private final boolean  focused;
+        /** Renderer */
+        private final int      renderer;
+        /** Whether the image has been composed in software, i.e. asynchronously, or with a GC */
+        private final boolean  composed;
+        /** Number of indicator frames, zero for backgrounds */
+        private final int      frames;
+        /** Content of the color profile of the indicator frames, null for backgrounds */
+        private final int[]    indicator;
+        /** Hash code */
+        private final int      hashCode;
+
+        /**
+         * Creates a new key
+         *
+         * @param size
+         * @param zoom Scale factor in percent
+         * @param profile
+         * @param stepping
+         * @param ticks
+         * @param background
+         * @param focused
+         * @param renderer
+         * @param composed Whether the image is composed in software, i.e. asynchronously, or with a GC
+         */
+        Key(int size, int zoom, KnobColorProfile profile, double stepping, double[] ticks, RGB background, boolean focused, int renderer, boolean composed) {
+            this.size = size;
+            this.zoom = zoom;
+            this.profile = profile.getPackedColors();
+            this.stepping = stepping;
+            this.ticks = ticks == null ? null : ticks.clone();
+            this.background = toInt(background);
+            this.focused = focused;
+            this.renderer = renderer;
+            this.composed = composed;
+            this.frames = 0;
+            this.indicator = null;
+            this.hashCode = computeHashCode();
+        }
+
+        /**
+         * Creates a key for indicator frames rendered onto the background with the given key
+         *
+         * @param background
+         * @param frames
+         * @param indicator
+         */
+        private Key(Key background, int frames, KnobColorProfile indicator) {
+            this.size = background.size;
+            this.zoom = background.zoom;
+            this.profile = background.profile;
+            this.stepping = background.stepping;
+            this.ticks = background.ticks;
+            this.background = background.background;
+            this.focused = background.focused;
+            this.renderer = background.renderer;
+            this.composed = background.composed;
+            this.frames = frames;
+            this.indicator = indicator.getPackedColors();
+            this.hashCode = computeHashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) return true;
+            if (obj == null || getClass() != obj.getClass()) return false;
+            Key other = (Key) obj;
+            if (hashCode != other.hashCode) return false;
+            if (size != other.size) return false;
+            if (zoom != other.zoom) return false;
+            if (background != other.background) return false;
+            if (focused != other.focused) return false;
+            if (renderer != other.renderer) return false;
+            if (composed != other.composed) return false;
+            if (frames != other.frames) return false;
+            if (Double.doubleToLongBits(stepping) != Double.doubleToLongBits(other.stepping)) return false;
+            if (!Arrays.equals(indicator, other.indicator)) return false;
+            if (!Arrays.equals(ticks, other.ticks)) return false;
+            return Arrays.equals(profile, other.profile);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        /**
+         * Returns a key for the given number of indicator frames, which are rendered with the
+         * given profile onto the background with this key
+         *
+         * @param frames
+         * @param indicator
+         * @return
+         */
+        Key getFramesKey(int frames, KnobColorProfile indicator) {
+            return new Key(this, frames, indicator);
+        }
+
+        /**
+         * Computes the hash code
+         *
+         * @return
+         */
+        private int computeHashCode() {
+            final int prime = 31;
+            int result = 1;
+            result = prime * result + size;
+            result = prime * result + zoom;
+            result = prime * result + Arrays.hashCode(this.profile);
+            long temp = Double.doubleToLongBits(stepping);
+            result = prime * result + (int) (temp ^ (temp >>> 32));
+            result = prime * result + Arrays.hashCode(this.ticks);
+            result = prime * result + this.background;
+            result = prime * result + (focused ? 1231 : 1237);
+            result = prime * result + renderer;
+            result = prime * result + (composed ? 1231 : 1237);
+            result = prime * result + frames;
+            result = prime * result + Arrays.hashCode(this.indicator);
+            return result;
+        }
+
+        /**
+         * Packs the given color into an int
+         *
+         * @param rgb
+         * @return
+         */
+        private int toInt(RGB rgb) {
+            return (rgb.red << 16) | (rgb.green << 8) | rgb.blue;
+        }
+    }
+
+    /**
+     * A job, which renders image data. Jobs are executed on background threads and
+     * must therefore not access any widgets or native resources.
+     *
+     * @author Fabian Prasser
+     */
+    static interface Job {
+
+        /**
+         * Renders the image data
+         *
+         * @return
+         */
+        ImageData render();
+    }
+
+    /**
+     * An entry in the cache
+     *
+     * @author Fabian Prasser
+     */
+    private static class Entry {
+
+        /** The image, null while it is being rendered or after it has been evicted */
+        private Image         image;
+        /** Size of the image in bytes */
+        private long          bytes;
+        /** Number of references */
+        private int           references = 1;
+        /** Whether the image has been evicted while it was still referenced */
+        private boolean       evicted    = false;
+        /** Number of working sets of visible controls, which contain the entry */
+        private int           users      = 0;
+        /** Controls waiting for the image */
+        private List<Control> waiting    = new ArrayList<Control>();
+    }
+
+    /** Key for storing the cache with the display */
+    private static final String KEY            = KnobImageCache.class.getName();
+    /** Default budget in bytes */
+    private static final long   DEFAULT_BUDGET = 64L * 1024L * 1024L;
+
+    /** Pool for rendering images in the background */
+    private static ForkJoinPool pool;
+
+    /**
+     * Returns the cache for the given display
+     *
+     * @param display
+     * @return
+     */
+    static KnobImageCache get(Display display) {
+        KnobImageCache cache = (KnobImageCache) display.getData(KEY);
+        if (cache == null) {
+            final KnobImageCache result = new KnobImageCache(display);
+            display.setData(KEY, result);
+            display.disposeExec(new Runnable() {
+                @Override
+                public void run() {
+                    result.dispose();
+                }
+            });
+            cache = result;
+        }
+        return cache;
+    }
+
+    /**
+     * Returns the pool for rendering images in the background
+     *
+     * @return
+     */
+    private static synchronized ForkJoinPool getPool() {
+        if (pool == null) {
+            pool = new ForkJoinPool();
+        }
+        return pool;
+    }
+
+    /** Display */
+    private final Display               display;
+    /** Entries, from the least to the most recently used */
+    private final Map<Key, Entry>       entries    = new LinkedHashMap<Key, Entry>(16, 0.75f, true);
+    /** Number of bytes of all images */
+    private long                        bytes      = 0L;
+    /** Maximal number of bytes of all images */
+    private long                        budget     = DEFAULT_BUDGET;
+    /** Statistics */
+    private final KnobStatistics        statistics = new KnobStatistics();
+    /** Number of nested paints */
+    private int                         painting   = 0;
+    /** Entries used by the current paint, which must not be evicted until it ends */
+    private final Set<Entry>            pinned     = Collections.newSetFromMap(new IdentityHashMap<Entry, Boolean>());
+    /** Entries used by the last paint of each visible control */
+    private final Map<Control, Entry[]> used       = new HashMap<Control, Entry[]>();
+    /** Number of bytes of the images used by the last paints of all visible controls */
+    private long                        minimal    = 0L;
+
+    /**
+     * Creates a new instance
+     *
+     * @param display
+     */
+    private KnobImageCache(Display display) {
+        this.display = display;
+        this.statistics.setLimit(budget);
+    }
+
+    /**
+     * Increments the reference count of the image for the given key, if it is available or being
+     * rendered. In the latter case, the given control will be redrawn when the image is ready.
+     * Returns false if the image must be rendered and added with {@link #put(Key, Image)} or
+     * {@link #submit(Key, Job, Control)}, which is also the case if it has been evicted.
+     *
+     * @param key
+     * @param control
+     * @return
+     */
+    boolean acquire(Key key, Control control) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return false;
+        }
+        pin(entry);
+        entry.references++;
+        if (entry.evicted) {
+            return false;
+        }
+        statistics.hit();
+        if (entry.image == null && control != null && !entry.waiting.contains(control)) {
+            entry.waiting.add(control);
+        }
+        return true;
+    }
+
+    /**
+     * Redraws the given control, when the image for the given key, which is being rendered in the
+     * background, is ready. Does nothing, if the image is not being rendered.
+     *
+     * @param key
+     * @param control
+     */
+    void await(Key key, Control control) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.image == null && !entry.evicted && !entry.waiting.contains(control)) {
+            entry.waiting.add(control);
+        }
+    }
+
+    /**
+     * Starts painting the given control. Images, which are used until the paint ends, are not evicted
+     * during the paint.
+     *
+     * @param control
+     */
+    void beginPaint(Control control) {
+        painting++;
+    }
+
+    /**
+     * Ends painting the given control and evicts images, if required. The images used by the paint
+     * form the working set of the control. The budget is never smaller than the working sets of all
+     * visible controls.
+     *
+     * @param control
+     */
+    void endPaint(Control control) {
+        if (painting > 0 && --painting == 0) {
+            setWorkingSet(control, pinned.toArray(new Entry[pinned.size()]));
+            pinned.clear();
+            evict(null);
+        }
+    }
+
+    /**
+     * Forgets the working set of the given control, e.g. when it is hidden or disposed
+     *
+     * @param control
+     */
+    void forget(Control control) {
+        setWorkingSet(control, null);
+    }
+
+    /**
+     * Returns whether the image for the given key is available
+     *
+     * @param key
+     * @return
+     */
+    boolean contains(Key key) {
+        Entry entry = entries.get(key);
+        return entry != null && entry.image != null;
+    }
+
+    /**
+     * Returns the image for the given key. Returns null if there is no such image, if it
+     * is still being rendered or if it has been evicted.
+     *
+     * @param key
+     * @return
+     */
+    Image get(Key key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        pin(entry);
+        return entry.image;
+    }
+
+    /**
+     * Returns the maximal number of bytes of all images
+     *
+     * @return
+     */
+    long getBudget() {
+        return budget;
+    }
+
+    /**
+     * Returns the statistics of all knobs on the display
+     *
+     * @return
+     */
+    KnobStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Returns whether the image for the given key has been evicted while it was still referenced.
+     * In this case, it must be rendered again and added with {@link #put(Key, Image)} or
+     * {@link #submit(Key, Job, Control)}.
+     *
+     * @param key
+     * @return
+     */
+    boolean isEvicted(Key key) {
+        Entry entry = entries.get(key);
+        return entry != null && entry.evicted;
+    }
+
+    /**
+     * Adds the given image with a reference count of one. If the image has been evicted,
+     * it is restored and the reference count is not changed.
+     *
+     * @param key
+     * @param image
+     */
+    void put(Key key, Image image) {
+        statistics.missed();
+        Entry entry = entries.get(key);
+        if (entry == null || !entry.evicted) {
+            if (entry != null) {
+                setImage(entry, null);
+            }
+            entry = new Entry();
+            entries.put(key, entry);
+        }
+        pin(entry);
+        setImage(entry, image);
+        evict(entry);
+    }
+
+    /**
+     * Decrements the reference count of the image for the given key. The image
+     * is retained when it is not referenced anymore, until it is evicted. If it is
+     * still being rendered, the result will be discarded.
+     *
+     * @param key
+     */
+    void release(Key key) {
+        Entry entry = entries.get(key);
+        if (entry != null && --entry.references <= 0) {
+            entry.references = 0;
+            entry.waiting.clear();
+            if (entry.image == null) {
+                entries.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Increments the reference count of the image for the given key, if it is available, in order
+     * to keep it alive, e.g. while a knob is being resized. In contrast to {@link #acquire(Key, Control)},
+     * this is not counted as a hit. Returns false if the image is not available.
+     *
+     * @param key
+     * @return
+     */
+    boolean retain(Key key) {
+        Entry entry = key == null ? null : entries.get(key);
+        if (entry == null || entry.image == null) {
+            return false;
+        }
+        entry.references++;
+        return true;
+    }
+
+    /**
+     * Sets the maximal number of bytes of all images and evicts images, if required
+     *
+     * @param budget
+     */
+    void setBudget(long budget) {
+        this.budget = budget;
+        evict(null);
+    }
+
+    /**
+     * Renders the image for the given key in the background. The image is added with a
+     * reference count of one and the given control is redrawn, when it is ready. If the
+     * image has been evicted, the reference count is not changed. If rendering fails in
+     * the background, the image is rendered again on the UI thread.
+     *
+     * @param key
+     * @param job
+     * @param control
+     */
+    void submit(final Key key, final Job job, Control control) {
+        statistics.missed();
+        Entry current = entries.get(key);
+        if (current == null || !current.evicted) {
+            if (current != null) {
+                setImage(current, null);
+            }
+            current = new Entry();
+            entries.put(key, current);
+        }
+        final Entry entry = current;
+        pin(entry);
+        entry.evicted = false;
+        if (!entry.waiting.contains(control)) {
+            entry.waiting.add(control);
+        }
+        getPool().execute(new RecursiveAction() {
+            private static final long serialVersionUID = -6426185434437366573L;
+
+            @Override
+            protected void compute() {
+                ImageData result = null;
+                try {
+                    result = job.render();
+                } catch (Throwable e) {
+                    /* Will be rendered again on the UI thread */
+                }
+                final ImageData data = result;
+                try {
+                    display.asyncExec(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (data != null) {
+                                KnobImageCache.this.complete(key, entry, data);
+                            } else {
+                                KnobImageCache.this.recover(key, entry, job);
+                            }
+                        }
+                    });
+                } catch (SWTException e) {
+                    /* The display has been disposed*/
+                }
+            }
+        });
+    }
+
+    /**
+     * Completes rendering of the image for the given key
+     *
+     * @param key
+     * @param entry
+     * @param data
+     */
+    private void complete(Key key, Entry entry, ImageData data) {
+        if (display.isDisposed() || entries.get(key) != entry || entry.references == 0) {
+            return;
+        }
+        setImage(entry, new Image(display, data));
+        wake(entry);
+        evict(entry);
+    }
+
+    /**
+     * Disposes all images
+     */
+    private void dispose() {
+        for (Entry entry : entries.values()) {
+            setImage(entry, null);
+        }
+        entries.clear();
+        pinned.clear();
+        used.clear();
+        minimal = 0L;
+    }
+
+    /**
+     * Disposes the least recently used images until all images fit into the budget. Images, which
+     * are not referenced, are evicted first. Images, which are still referenced, are rendered again
+     * when they are painted the next time. Images used by the current paint are never evicted, and
+     * the budget is raised to the working sets of all visible controls, so that painting them does
+     * not evict the images of each other. The resulting limit is reported by the statistics.
+     *
+     * @param keep Entry, which must not be evicted, may be null
+     */
+    private void evict(Entry keep) {
+        long limit = Math.max(budget, minimal);
+        statistics.setLimit(limit);
+        for (int pass = 0; pass < 2 && bytes > limit; pass++) {
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (bytes > limit && iterator.hasNext()) {
+                Entry entry = iterator.next();
+                if (entry == keep || entry.image == null || pinned.contains(entry) ||
+                    (pass == 0 && entry.references > 0)) {
+                    continue;
+                }
+                setImage(entry, null);
+                statistics.evicted();
+                if (entry.references == 0) {
+                    iterator.remove();
+                } else {
+                    entry.evicted = true;
+                }
+            }
+        }
+        statistics.setBytes(bytes);
+    }
+
+    /**
+     * Pins the given entry, if a paint is in progress
+     *
+     * @param entry
+     */
+    private void pin(Entry entry) {
+        if (painting > 0) {
+            pinned.add(entry);
+        }
+    }
+
+    /**
+     * Renders the image for the given key on the UI thread, after rendering it in the background
+     * has failed. If this fails as well, the entry is removed, the waiting controls are redrawn
+     * and the error is passed on.
+     *
+     * @param key
+     * @param entry
+     * @param job
+     */
+    private void recover(Key key, Entry entry, Job job) {
+        if (display.isDisposed() || entries.get(key) != entry || entry.references == 0) {
+            return;
+        }
+        ImageData data = null;
+        try {
+            data = job.render();
+        } finally {
+            if (data == null) {
+                entries.remove(key);
+                wake(entry);
+            }
+        }
+        complete(key, entry, data);
+    }
+
+    /**
+     * Sets the image of the given entry, disposes its previous image and tracks the number of bytes
+     *
+     * @param entry
+     * @param image
+     */
+    private void setImage(Entry entry, Image image) {
+        if (entry.image != null) {
+            bytes -= entry.bytes;
+            if (entry.users > 0) minimal -= entry.bytes;
+            if (entry.image != image && !entry.image.isDisposed()) entry.image.dispose();
+        }
+        entry.image = image;
+        entry.bytes = 0L;
+        entry.evicted = false;
+        if (image != null) {
+            Rectangle bounds = image.getBounds();
+            entry.bytes = (long) bounds.width * (long) bounds.height * 4L;
+            bytes += entry.bytes;
+            if (entry.users > 0) minimal += entry.bytes;
+        }
+    }
+
+    /**
+     * Replaces the working set of the given control and updates the number of bytes of all working
+     * sets. Images, which are shared by several controls, are counted once.
+     *
+     * @param control
+     * @param set The new working set, null to remove it
+     */
+    private void setWorkingSet(Control control, Entry[] set) {
+        Entry[] previous = set == null ? used.remove(control) : used.put(control, set);
+        if (set != null) {
+            for (Entry entry : set) {
+                if (entry.users++ == 0) minimal += entry.bytes;
+            }
+        }
+        if (previous != null) {
+            for (Entry entry : previous) {
+                if (--entry.users == 0) minimal -= entry.bytes;
+            }
+        }
+    }
+
+    /**
+     * Redraws the controls waiting for the image of the given entry
+     *
+     * @param entry
+     */
+    private void wake(Entry entry) {
+        for (Control control : entry.waiting) {
+            if (!control.isDisposed()) control.redraw();
+        }
+        entry.waiting.clear();
+    }
+}
@@ -66,10 +66,20 @@ class KnobInputDialog<T> extends Dialog {
         if ((scale instanceof KnobRange.Character) || (scale instanceof KnobRange.Long) ||
             (scale instanceof KnobRange.Integer)) {
             message = message.replace("[type]", language.getInteger());
+        } else if (scale instanceof KnobRange.Enumeration) {
+            message = message.replace("[type]", language.getOption());
         } else {
             message = message.replace("[type]", language.getDecimal());
         }
-        message = message.replace("[range]", "[" + toString(scale.getMinimum()) + ", " + toString(scale.getMaximum()) + "]");
+        if (scale instanceof KnobRange.Enumeration) {
+            StringBuilder builder = new StringBuilder();
+            for (T option : ((KnobRange.Enumeration<T>)scale).getValues()) {
+                builder.append(builder.length() == 0 ? "[" : ", ").append(toString(option));
+            }
+            message = message.replace("[range]", builder.append("]").toString());
+        } else {
+            message = message.replace("[range]", "[" + toString(scale.getMinimum()) + ", " + toString(scale.getMaximum()) + "]");
+        }
         this.message = message;
     }
     
@@ -187,10 +197,13 @@ class KnobInputDialog<T> extends Dialog {
             float lvalue =(Float)value;
             if (formatter == null) return String.valueOf(lvalue);
             else return formatter.format(lvalue);
-        } else if (scale instanceof KnobRange.Double){
+        } else if (scale instanceof KnobRange.Double || scale instanceof KnobRange.Curve ||
+                   scale instanceof KnobRange.Discrete){
             double lvalue =(Double)value;
             if (formatter == null) return String.valueOf(lvalue);
             else return formatter.format(lvalue);
+        } else if (scale instanceof KnobRange.Enumeration){
+            return String.valueOf(value);
         }  else {
             throw new IllegalStateException("Unknown type of scale: "+scale);
         }
@@ -202,18 +215,16 @@ class KnobInputDialog<T> extends Dialog {
         try {
             if (scale instanceof KnobRange.Long){
                 
-                long min = ((KnobRange.Long)scale).getMinimum();
-                long max = ((KnobRange.Long)scale).getMaximum();
-                long value = formatter == null ? Long.valueOf(input) : formatter.parse(input).longValue();
-                if (value < min || value > max) return null;
+                KnobRange.LongRange range = ((KnobRange.Long)scale).getLongRange();
+                long value = formatter == null ? Long.parseLong(input) : formatter.parse(input).longValue();
+                if (!range.contains(value)) return null;
                 else return (T)Long.valueOf(value);
                 
             } else if (scale instanceof KnobRange.Integer){
                 
-                int min = ((KnobRange.Integer)scale).getMinimum();
-                int max = ((KnobRange.Integer)scale).getMaximum();
-                int value = formatter == null ? Integer.valueOf(input) : formatter.parse(input).intValue();
-                if (value < min || value > max) return null;
+                KnobRange.IntRange range = ((KnobRange.Integer)scale).getIntRange();
+                int value = formatter == null ? Integer.parseInt(input) : formatter.parse(input).intValue();
+                if (!range.contains(value)) return null;
                 else return (T)Integer.valueOf(value);
                 
             } else if (scale instanceof KnobRange.Character){
@@ -234,11 +245,31 @@ class KnobInputDialog<T> extends Dialog {
                 
             } else if (scale instanceof KnobRange.Double){
                 
-                double min = ((KnobRange.Double)scale).getMinimum();
-                double max = ((KnobRange.Double)scale).getMaximum();
-                double value = formatter == null ? Double.valueOf(input) : formatter.parse(input).doubleValue();
+                KnobRange.DoubleRange range = ((KnobRange.Double)scale).getDoubleRange();
+                double value = formatter == null ? Double.parseDouble(input) : formatter.parse(input).doubleValue();
+                if (!range.contains(value)) return null;
+                else return (T)Double.valueOf(value);
+
+            } else if (scale instanceof KnobRange.Curve){
+                
+                double min = ((KnobRange.Curve)scale).getMinimum();
+                double max = ((KnobRange.Curve)scale).getMaximum();
+                double value = formatter == null ? Double.parseDouble(input) : formatter.parse(input).doubleValue();
                 if (value < min || value > max) return null;
                 else return (T)Double.valueOf(value);
+
+            } else if (scale instanceof KnobRange.Discrete){
+                
+                KnobRange.Discrete discrete = (KnobRange.Discrete)scale;
+                double value = formatter == null ? Double.parseDouble(input) : formatter.parse(input).doubleValue();
+                if (value < discrete.getMinimum() || value > discrete.getMaximum()) return null;
+                else return (T)Double.valueOf(discrete.getNearestValue(value));
+
+            } else if (scale instanceof KnobRange.Enumeration){
+                
+                for (T option : ((KnobRange.Enumeration<T>)scale).getValues()) {
+                    if (String.valueOf(option).equalsIgnoreCase(input.trim())) return option;
+                }
             } 
         } catch (Exception e){
             /* Catch silently*/
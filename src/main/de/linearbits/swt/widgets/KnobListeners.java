@@ -0,0 +1,146 @@
+/* ******************************************************************************
+ * Copyright (c) 2014 - 2015 Fabian Prasser.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Fabian Prasser - initial API and implementation
+ ******************************************************************************/
+
+package de.linearbits.swt.widgets;
+
+import java.util.Arrays;
+
+/**
+ * Manages the primitive listeners of a knob. Listeners are stored in arrays, which are
+ * copied on modification, so that notifying them does not allocate any objects.
+ *
+ * @author Fabian Prasser
+ */
+class KnobListeners {
+
+    /**
+     * Returns a copy of the array with the element added
+     *
+     * @param array
+     * @param element
+     * @return
+     */
+    private static <T> T[] add(T[] array, T element) {
+        if (element == null) { throw new NullPointerException("Listener must not be null"); }
+        T[] result = Arrays.copyOf(array, array.length + 1);
+        result[array.length] = element;
+        return result;
+    }
+
+    /**
+     * Returns a copy of the array with the element removed, or the array if it does not contain the element
+     *
+     * @param array
+     * @param element
+     * @return
+     */
+    private static <T> T[] remove(T[] array, T element) {
+        for (int i = 0; i < array.length; i++) {
+            if (array[i] == element) {
+                T[] result = Arrays.copyOf(array, array.length - 1);
+                System.arraycopy(array, i + 1, result, i, array.length - i - 1);
+                return result;
+            }
+        }
+        return array;
+    }
+
+    /** Listeners */
+    private IntKnobListener[]    intListeners    = new IntKnobListener[0];
+    /** Listeners */
+    private LongKnobListener[]   longListeners   = new LongKnobListener[0];
+    /** Listeners */
+    private DoubleKnobListener[] doubleListeners = new DoubleKnobListener[0];
+
+    /**
+     * Adds a listener
+     *
+     * @param listener
+     */
+    void addDouble(DoubleKnobListener listener) {
+        doubleListeners = add(doubleListeners, listener);
+    }
+
+    /**
+     * Adds a listener
+     *
+     * @param listener
+     */
+    void addInt(IntKnobListener listener) {
+        intListeners = add(intListeners, listener);
+    }
+
+    /**
+     * Adds a listener
+     *
+     * @param listener
+     */
+    void addLong(LongKnobListener listener) {
+        longListeners = add(longListeners, listener);
+    }
+
+    /**
+     * Notifies all listeners
+     *
+     * @param knob
+     * @param range
+     * @param value
+     */
+    void fire(Knob<?> knob, KnobRange<?> range, double value) {
+
+        // Read each array once, so that listeners may add or remove listeners
+        IntKnobListener[] intListeners = this.intListeners;
+        LongKnobListener[] longListeners = this.longListeners;
+        if (intListeners.length != 0 || longListeners.length != 0) {
+            long external = range.toExternalLong(value);
+            for (int i = 0; i < intListeners.length; i++) {
+                intListeners[i].valueChanged(knob, (int) external);
+            }
+            for (int i = 0; i < longListeners.length; i++) {
+                longListeners[i].valueChanged(knob, external);
+            }
+        }
+        DoubleKnobListener[] doubleListeners = this.doubleListeners;
+        if (doubleListeners.length != 0) {
+            double external = range.toExternalDouble(value);
+            for (int i = 0; i < doubleListeners.length; i++) {
+                doubleListeners[i].valueChanged(knob, external);
+            }
+        }
+    }
+
+    /**
+     * Removes a listener
+     *
+     * @param listener
+     */
+    void removeDouble(DoubleKnobListener listener) {
+        doubleListeners = remove(doubleListeners, listener);
+    }
+
+    /**
+     * Removes a listener
+     *
+     * @param listener
+     */
+    void removeInt(IntKnobListener listener) {
+        intListeners = remove(intListeners, listener);
+    }
+
+    /**
+     * Removes a listener
+     *
+     * @param listener
+     */
+    void removeLong(LongKnobListener listener) {
+        longListeners = remove(longListeners, listener);
+    }
+}
@@ -11,6 +11,13 @@
 
 package de.linearbits.swt.widgets;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * A range for SWTKnob
  * @author Fabian Prasser
@@ -60,6 +67,16 @@ public abstract class KnobRange<T> {
             return (char) Math.round(((double) value * ((double)maximum - (double)minimum) + (double) minimum));
         }
 
+        @Override
+        double toExternalDouble(double value) {
+            return toExternalLong(value);
+        }
+
+        @Override
+        long toExternalLong(double value) {
+            return (char) Math.round(value * ((double)maximum - (double)minimum) + (double) minimum);
+        }
+
         @Override
         protected double toInternal(java.lang.Character value) {
             if (value < minimum) {
@@ -77,6 +94,428 @@ public abstract class KnobRange<T> {
         }
     }
 
+    /**
+     * A range of doubles, which are mapped onto the knob with a non-linear curve, e.g. logarithmically.
+     * The curve is sampled into a lookup table once, so that converting values does not require evaluating
+     * functions such as logarithms or powers. Between samples, values are interpolated linearly. The
+     * minimum and the maximum are mapped exactly.
+     * 
+     * @author Fabian Prasser
+     */
+    public static class Curve extends KnobRange<java.lang.Double> {
+
+        /** Number of intervals of the lookup table */
+        private static final int RESOLUTION = 1024;
+        /** Maximal number of ticks */
+        private static final int MAX_TICKS  = 24;
+
+        /**
+         * Creates a range of decibels, which is linear in amplitude, e.g. for volume controls
+         * 
+         * @param minimum
+         * @param maximum
+         * @return
+         */
+        public static Curve createDecibel(double minimum, double maximum) {
+            checkFinite(minimum, maximum);
+            final double from = Math.pow(10d, minimum / 20d);
+            final double to = Math.pow(10d, maximum / 20d);
+            double[] table = new double[RESOLUTION + 1];
+            for (int i = 1; i < RESOLUTION; i++) {
+                table[i] = 20d * Math.log10(from + (to - from) * (double) i / (double) RESOLUTION);
+            }
+            makeStrictlyIncreasing(table, minimum, maximum);
+
+            // Ticks at multiples of 1, 3, 6, 10 or 20 dB
+            double[] steps = { 1d, 3d, 6d, 10d, 20d };
+            double step = steps[steps.length - 1];
+            for (double candidate : steps) {
+                if ((maximum - minimum) / candidate <= MAX_TICKS) {
+                    step = candidate;
+                    break;
+                }
+            }
+            List<java.lang.Double> ticks = new ArrayList<java.lang.Double>();
+            for (double x = Math.ceil(minimum / step) * step; x <= maximum; x += step) {
+                ticks.add((Math.pow(10d, x / 20d) - from) / (to - from));
+            }
+            return new Curve(minimum, maximum, table, ticks);
+        }
+
+        /**
+         * Creates a range, in which values grow with the given power of the knob's position. An exponent
+         * greater than one provides a finer resolution for small values.
+         * 
+         * @param minimum
+         * @param maximum
+         * @param exponent
+         * @return
+         */
+        public static Curve createExponential(double minimum, double maximum, double exponent) {
+            checkFinite(minimum, maximum);
+            if (!(exponent > 0d) || java.lang.Double.isInfinite(exponent)) {
+                throw new IllegalArgumentException("Exponent (" + exponent + ") must be > 0");
+            }
+            double[] table = new double[RESOLUTION + 1];
+            for (int i = 1; i < RESOLUTION; i++) {
+                table[i] = minimum + (maximum - minimum) * Math.pow((double) i / (double) RESOLUTION, exponent);
+            }
+            makeStrictlyIncreasing(table, minimum, maximum);
+            return new Curve(minimum, maximum, table, null);
+        }
+
+        /**
+         * Creates a logarithmic range, e.g. for frequencies. The minimum must be greater than zero.
+         * 
+         * @param minimum
+         * @param maximum
+         * @return
+         */
+        public static Curve createLogarithmic(double minimum, double maximum) {
+            checkFinite(minimum, maximum);
+            if (minimum <= 0d) {
+                throw new IllegalArgumentException("Minimum (" + minimum + ") must be > 0");
+            }
+            double ratio = Math.log(maximum / minimum);
+            double[] table = new double[RESOLUTION + 1];
+            for (int i = 1; i < RESOLUTION; i++) {
+                table[i] = minimum * Math.exp(ratio * (double) i / (double) RESOLUTION);
+            }
+            makeStrictlyIncreasing(table, minimum, maximum);
+
+            // Ticks at 1, 2 and 5 times powers of ten, or at powers of ten only
+            List<java.lang.Double> ticks = new ArrayList<java.lang.Double>();
+            int first = (int) Math.floor(Math.log10(minimum));
+            int last = (int) Math.ceil(Math.log10(maximum));
+            double[] multiples = (last - first) * 3 <= MAX_TICKS ? new double[] { 1d, 2d, 5d } : new double[] { 1d };
+            for (int exponent = first; exponent <= last; exponent++) {
+                for (double multiple : multiples) {
+                    double x = multiple * Math.pow(10d, exponent);
+                    if (x >= minimum && x <= maximum) {
+                        ticks.add(Math.log(x / minimum) / ratio);
+                    }
+                }
+            }
+            return new Curve(minimum, maximum, table, ticks);
+        }
+
+        /**
+         * Creates a piecewise linear range. The positions must increase from 0 to 1 and denote the positions
+         * of the knob at which the corresponding values are reached. Values must be increasing as well.
+         * 
+         * @param positions
+         * @param values
+         * @return
+         */
+        public static Curve createPiecewise(double[] positions, double[] values) {
+            if (positions.length != values.length || positions.length < 2) {
+                throw new IllegalArgumentException("Positions and values must have the same length, which must be >= 2");
+            }
+            if (positions[0] != 0d || positions[positions.length - 1] != 1d) {
+                throw new IllegalArgumentException("Positions must start with 0 and end with 1");
+            }
+            for (int i = 1; i < positions.length; i++) {
+                if (positions[i] <= positions[i - 1]) {
+                    throw new IllegalArgumentException("Positions must be strictly increasing");
+                }
+            }
+            checkFinite(values[0], values[values.length - 1]);
+            double[] table = new double[RESOLUTION + 1];
+            int segment = 0;
+            for (int i = 1; i < RESOLUTION; i++) {
+                double position = (double) i / (double) RESOLUTION;
+                while (positions[segment + 1] < position) {
+                    segment++;
+                }
+                double fraction = (position - positions[segment]) / (positions[segment + 1] - positions[segment]);
+                table[i] = values[segment] + (values[segment + 1] - values[segment]) * fraction;
+            }
+
+            // Ticks at the positions, of which only every n-th one is used if there are too many
+            int every = (positions.length - 2) / MAX_TICKS + 1;
+            List<java.lang.Double> ticks = new ArrayList<java.lang.Double>();
+            for (int i = 0; i < positions.length; i += every) {
+                ticks.add(positions[i]);
+            }
+            if ((positions.length - 1) % every != 0) {
+                ticks.add(positions[positions.length - 1]);
+            }
+            return new Curve(values[0], values[values.length - 1], table, ticks);
+        }
+
+        /**
+         * Checks minimum and maximum
+         * 
+         * @param minimum
+         * @param maximum
+         */
+        private static void checkFinite(double minimum, double maximum) {
+            if (java.lang.Double.isNaN(minimum) || java.lang.Double.isInfinite(minimum) ||
+                java.lang.Double.isNaN(maximum) || java.lang.Double.isInfinite(maximum)) {
+                throw new IllegalArgumentException("Minimum (" + minimum + ") and maximum (" + maximum + ") must be finite");
+            }
+            if (minimum >= maximum) { 
+                throw new IllegalArgumentException("Minimum (" + minimum + ") must be < maximum (" + maximum + ")"); 
+            }
+        }
+
+        /**
+         * Sets the first and the last value of the table to minimum and maximum and moves the other values
+         * by the smallest possible amounts, so that the table is strictly increasing. This is required when
+         * values of a function cannot be distinguished with doubles, e.g. when powers with large exponents
+         * underflow or when powers with small exponents round to the same value.
+         * 
+         * @param table
+         * @param minimum
+         * @param maximum
+         */
+        private static void makeStrictlyIncreasing(double[] table, double minimum, double maximum) {
+            table[0] = minimum;
+            table[table.length - 1] = maximum;
+            for (int i = 1; i < table.length - 1; i++) {
+                if (!(table[i] > table[i - 1])) {
+                    table[i] = Math.nextUp(table[i - 1]);
+                }
+            }
+            for (int i = table.length - 2; i > 0; i--) {
+                if (!(table[i] < table[i + 1])) {
+                    table[i] = Math.nextAfter(table[i + 1], java.lang.Double.NEGATIVE_INFINITY);
+                }
+            }
+            if (!(table[1] > table[0])) {
+                throw new IllegalArgumentException("Minimum (" + minimum + ") and maximum (" + maximum + ") are too close to each other");
+            }
+        }
+
+        /** The minimum */
+        private final double   min;
+        /** The maximum */
+        private final double   max;
+        /** Values at equidistant positions */
+        private final double[] table;
+        /** Positions of ticks, null for the default */
+        private final double[] ticks;
+
+        /**
+         * Creates a new instance
+         * 
+         * @param minimum
+         * @param maximum
+         * @param table Values at equidistant positions, the first and the last value will be set to minimum and maximum
+         * @param ticks
+         */
+        private Curve(double minimum, double maximum, double[] table, List<java.lang.Double> ticks) {
+            super(minimum, maximum);
+            this.min = minimum;
+            this.max = maximum;
+            this.table = table;
+            this.table[0] = minimum;
+            this.table[table.length - 1] = maximum;
+            for (int i = 1; i < table.length; i++) {
+                if (!(table[i] > table[i - 1])) {
+                    throw new IllegalArgumentException("Curve must be strictly increasing");
+                }
+            }
+            if (ticks == null) {
+                this.ticks = null;
+            } else {
+                this.ticks = new double[ticks.size()];
+                for (int i = 0; i < this.ticks.length; i++) {
+                    this.ticks[i] = ticks.get(i);
+                }
+            }
+        }
+
+        @Override
+        protected double getStepping() {
+            return 0;
+        }
+
+        @Override
+        protected double[] getTickPositions() {
+            return ticks;
+        }
+
+        @Override
+        protected java.lang.Double toExternal(double value) {
+            return toExternalDouble(value);
+        }
+
+        @Override
+        double toExternalDouble(double value) {
+            if (value <= 0d) {
+                return min;
+            } else if (value >= 1d) {
+                return max;
+            }
+            double position = value * RESOLUTION;
+            int index = (int) position;
+            return table[index] + (table[index + 1] - table[index]) * (position - index);
+        }
+
+        @Override
+        long toExternalLong(double value) {
+            return Math.round(toExternalDouble(value));
+        }
+
+        @Override
+        protected double toInternal(java.lang.Double value) {
+            if (value < min) {
+                throw new IllegalArgumentException("Value (" + value + ") must be >= minimum (" + min + ")");
+            } else if (value > max) { 
+                throw new IllegalArgumentException("Value (" + value + ") must be <= maximum (" + max + ")"); 
+            }
+            if (value == min) {
+                return 0d;
+            } else if (value == max) {
+                return 1d;
+            }
+            
+            // Find the interval containing the value
+            int low = 0;
+            int high = RESOLUTION;
+            while (high - low > 1) {
+                int mid = (low + high) >>> 1;
+                if (table[mid] <= value) {
+                    low = mid;
+                } else {
+                    high = mid;
+                }
+            }
+            return ((double) low + (value - table[low]) / (table[high] - table[low])) / RESOLUTION;
+        }
+
+        @Override
+        protected double toNearestInternal(double value) {
+            return value;
+        }
+    }
+
+    /**
+     * A range of discrete doubles, e.g. standard sample rates or a series of resistor values. The values
+     * are distributed evenly on the knob and the indicator snaps to them. Values entered with the input
+     * dialog are snapped to the nearest value.
+     * 
+     * @author Fabian Prasser
+     */
+    public static class Discrete extends KnobRange<java.lang.Double> {
+
+        /**
+         * Checks the values and returns the minimum
+         * 
+         * @param values
+         * @return
+         */
+        private static double checkValues(double[] values) {
+            if (values.length < 2) {
+                throw new IllegalArgumentException("At least two values must be specified");
+            }
+            for (int i = 0; i < values.length; i++) {
+                if (java.lang.Double.isNaN(values[i]) || java.lang.Double.isInfinite(values[i])) {
+                    throw new IllegalArgumentException("Value (" + values[i] + ") must be finite");
+                }
+                if (i > 0 && values[i] <= values[i - 1]) {
+                    throw new IllegalArgumentException("Values must be strictly increasing");
+                }
+            }
+            return values[0];
+        }
+
+        /** The values */
+        private final double[] values;
+        /** The stepping */
+        private final double   stepping;
+        /** Positions of ticks, null for the default */
+        private final double[] ticks;
+
+        /**
+         * Defines the values, which must be strictly increasing
+         * 
+         * @param values
+         */
+        public Discrete(double... values) {
+            super(checkValues(values), values[values.length - 1]);
+            this.values = values.clone();
+            this.stepping = 1d / (double) (values.length - 1);
+            if (values.length - 1 <= MAX_DISCRETE_TICKS) {
+                this.ticks = new double[values.length];
+                for (int i = 0; i < ticks.length; i++) {
+                    this.ticks[i] = (double) i / (double) (values.length - 1);
+                }
+            } else {
+                this.ticks = null;
+            }
+        }
+
+        /**
+         * Returns the value which is nearest to the given value
+         * 
+         * @param value
+         * @return
+         */
+        public double getNearestValue(double value) {
+            int index = Arrays.binarySearch(values, value);
+            if (index >= 0) {
+                return values[index];
+            }
+            index = -index - 1;
+            if (index == 0) {
+                return values[0];
+            } else if (index == values.length) {
+                return values[values.length - 1];
+            }
+            return value - values[index - 1] <= values[index] - value ? values[index - 1] : values[index];
+        }
+
+        /**
+         * Returns the values
+         * 
+         * @return
+         */
+        public double[] getValues() {
+            return values.clone();
+        }
+
+        @Override
+        protected double getStepping() {
+            return stepping;
+        }
+
+        @Override
+        protected double[] getTickPositions() {
+            return ticks;
+        }
+
+        @Override
+        protected java.lang.Double toExternal(double value) {
+            return toExternalDouble(value);
+        }
+
+        @Override
+        double toExternalDouble(double value) {
+            return values[getIndex(value, values.length)];
+        }
+
+        @Override
+        long toExternalLong(double value) {
+            return Math.round(toExternalDouble(value));
+        }
+
+        @Override
+        protected double toInternal(java.lang.Double value) {
+            int index = Arrays.binarySearch(values, value);
+            if (index < 0) {
+                throw new IllegalArgumentException("Value (" + value + ") is not contained in the range");
+            }
+            return (double) index / (double) (values.length - 1);
+        }
+
+        @Override
+        protected double toNearestInternal(double value) {
+            return (double) getIndex(value, values.length) / (double) (values.length - 1);
+        }
+    }
+
     /**
      * A double range
      * 
@@ -84,6 +523,9 @@ public abstract class KnobRange<T> {
      */
     public static class Double extends KnobRange<java.lang.Double> {
 
+        /** The primitive range */
+        private final DoubleRange range;
+
         /**
          * Default constructor. Range is -Double.MAX_VALUE - Double.MAX_VALUE
          * 
@@ -102,9 +544,15 @@ public abstract class KnobRange<T> {
          */
         public Double(java.lang.Double minimum, java.lang.Double maximum) {
             super(minimum, maximum);
-            if (minimum >= maximum) { 
-                throw new IllegalArgumentException("Minimum (" + minimum + ") must be < maximum (" + maximum + ")"); 
-            }
+            this.range = new DoubleRange(minimum, maximum);
+        }
+
+        /**
+         * Returns the primitive range
+         * @return
+         */
+        public DoubleRange getDoubleRange() {
+            return range;
         }
 
         @Override
@@ -114,22 +562,212 @@ public abstract class KnobRange<T> {
 
         @Override
         protected java.lang.Double toExternal(double value) {
-            return value * (maximum - minimum) + minimum;
+            return range.toExternalDouble(value);
+        }
+
+        @Override
+        double toExternalDouble(double value) {
+            return range.toExternalDouble(value);
+        }
+
+        @Override
+        long toExternalLong(double value) {
+            return Math.round(range.toExternalDouble(value));
         }
 
         @Override
         protected double toInternal(java.lang.Double value) {
+            return range.toInternal(value);
+        }
+
+        @Override
+        protected double toNearestInternal(double value) {
+            return value;
+        }
+    }
+
+    /**
+     * A range of primitive doubles, which converts values without boxing
+     * 
+     * @author Fabian Prasser
+     */
+    public static final class DoubleRange {
+
+        /** The minimum */
+        private final double minimum;
+        /** The maximum */
+        private final double maximum;
+        /** The span */
+        private final double span;
+        /** The reciprocal of the span */
+        private final double reciprocal;
+
+        /**
+         * Defines minimum and maximum values
+         * 
+         * @param minimum
+         * @param maximum
+         */
+        public DoubleRange(double minimum, double maximum) {
+            if (minimum >= maximum) { 
+                throw new IllegalArgumentException("Minimum (" + minimum + ") must be < maximum (" + maximum + ")"); 
+            }
+            this.minimum = minimum;
+            this.maximum = maximum;
+            this.span = maximum - minimum;
+            this.reciprocal = 1d / span;
+        }
+
+        /**
+         * Returns whether the value is within the range
+         * @param value
+         * @return
+         */
+        public boolean contains(double value) {
+            return value >= minimum && value <= maximum;
+        }
+
+        /**
+         * Returns the maximum
+         * @return
+         */
+        public double getMaximum() {
+            return maximum;
+        }
+
+        /**
+         * Returns the minimum
+         * @return
+         */
+        public double getMinimum() {
+            return minimum;
+        }
+
+        /**
+         * Converts the internal to an external value
+         * @param value
+         * @return
+         */
+        public double toExternalDouble(double value) {
+            return value * span + minimum;
+        }
+
+        /**
+         * Converts the external to an internal value
+         * @param value
+         * @return
+         */
+        public double toInternal(double value) {
             if (value < minimum) {
                 throw new IllegalArgumentException("Value (" + value + ") must be >= minimum (" + minimum + ")");
             } else if (value > maximum) { 
                 throw new IllegalArgumentException("Value (" + value + ") must be <= maximum (" + maximum + ")"); 
             }
-            return (value - minimum) / (maximum - minimum);
+            return value == maximum ? 1d : (value - minimum) * reciprocal;
+        }
+    }
+
+
+    /**
+     * A range of arbitrary values, e.g. the names of presets. The values are distributed evenly on the knob
+     * and the indicator snaps to them. Primitive listeners are notified about the index of the current value.
+     * 
+     * @author Fabian Prasser
+     * 
+     * @param <T>
+     */
+    public static class Enumeration<T> extends KnobRange<T> {
+
+        /** The values */
+        private final List<T>                   values;
+        /** The index of each value */
+        private final Map<T, java.lang.Integer> indices;
+        /** The stepping */
+        private final double                    stepping;
+        /** Positions of ticks, null for the default */
+        private final double[]                  ticks;
+
+        /**
+         * Defines the values, which must be distinct
+         * 
+         * @param values
+         */
+        @SafeVarargs
+        public Enumeration(T... values) {
+            super(values.length < 2 ? null : values[0], values.length < 2 ? null : values[values.length - 1]);
+            if (values.length < 2) {
+                throw new IllegalArgumentException("At least two values must be specified");
+            }
+            // The array is only read, so that it cannot cause heap pollution
+            List<T> list = new ArrayList<T>(values.length);
+            this.indices = new HashMap<T, java.lang.Integer>();
+            for (T value : values) {
+                if (value == null) {
+                    throw new NullPointerException("Values must not be null");
+                }
+                if (this.indices.put(value, list.size()) != null) {
+                    throw new IllegalArgumentException("Value (" + value + ") is specified more than once");
+                }
+                list.add(value);
+            }
+            this.values = Collections.unmodifiableList(list);
+            this.stepping = 1d / (double) (values.length - 1);
+            if (values.length - 1 <= MAX_DISCRETE_TICKS) {
+                this.ticks = new double[values.length];
+                for (int i = 0; i < ticks.length; i++) {
+                    this.ticks[i] = (double) i / (double) (values.length - 1);
+                }
+            } else {
+                this.ticks = null;
+            }
+        }
+
+        /**
+         * Returns the values
+         * 
+         * @return
+         */
+        public List<T> getValues() {
+            return values;
+        }
+
+        @Override
+        protected double getStepping() {
+            return stepping;
+        }
+
+        @Override
+        protected double[] getTickPositions() {
+            return ticks;
+        }
+
+        @Override
+        protected T toExternal(double value) {
+            return values.get(getIndex(value, values.size()));
+        }
+
+        @Override
+        double toExternalDouble(double value) {
+            return getIndex(value, values.size());
+        }
+
+        @Override
+        long toExternalLong(double value) {
+            return getIndex(value, values.size());
+        }
+
+        @Override
+        protected double toInternal(T value) {
+            java.lang.Integer index = indices.get(value);
+            if (index == null) {
+                throw new IllegalArgumentException("Value (" + value + ") is not contained in the range");
+            }
+            return (double) index / (double) (values.size() - 1);
         }
 
         @Override
         protected double toNearestInternal(double value) {
-            return value;
+            return (double) getIndex(value, values.size()) / (double) (values.size() - 1);
         }
     }
 
@@ -173,6 +811,16 @@ public abstract class KnobRange<T> {
             return (float) ((double) value * ((double)maximum - (double)minimum) + (double) minimum);
         }
 
+        @Override
+        double toExternalDouble(double value) {
+            return (float) (value * ((double)maximum - (double)minimum) + (double) minimum);
+        }
+
+        @Override
+        long toExternalLong(double value) {
+            return Math.round(toExternalDouble(value));
+        }
+
         @Override
         protected double toInternal(java.lang.Float value) {
             if (value < minimum) {
@@ -188,6 +836,113 @@ public abstract class KnobRange<T> {
             return value;
         }
     }
+    /**
+     * A range of primitive ints, which converts values without boxing
+     * 
+     * @author Fabian Prasser
+     */
+    public static final class IntRange {
+
+        /** The minimum */
+        private final int    minimum;
+        /** The maximum */
+        private final int    maximum;
+        /** The span */
+        private final double span;
+        /** The reciprocal of the span */
+        private final double reciprocal;
+
+        /**
+         * Defines minimum and maximum values
+         * 
+         * @param minimum
+         * @param maximum
+         */
+        public IntRange(int minimum, int maximum) {
+            if (minimum >= maximum) { 
+                throw new IllegalArgumentException("Minimum (" + minimum + ") must be < maximum (" + maximum + ")"); 
+            }
+            this.minimum = minimum;
+            this.maximum = maximum;
+            this.span = (double) maximum - (double) minimum;
+            this.reciprocal = 1d / span;
+        }
+
+        /**
+         * Returns whether the value is within the range
+         * @param value
+         * @return
+         */
+        public boolean contains(int value) {
+            return value >= minimum && value <= maximum;
+        }
+
+        /**
+         * Returns the maximum
+         * @return
+         */
+        public int getMaximum() {
+            return maximum;
+        }
+
+        /**
+         * Returns the minimum
+         * @return
+         */
+        public int getMinimum() {
+            return minimum;
+        }
+
+        /**
+         * Returns the stepping
+         * @return
+         */
+        public double getStepping() {
+            return reciprocal;
+        }
+
+        /**
+         * Converts the internal to an external value
+         * @param value
+         * @return
+         */
+        public int toExternalInt(double value) {
+            return (int) Math.round(value * span + (double) minimum);
+        }
+
+        /**
+         * Converts the external to an internal value
+         * @param value
+         * @return
+         */
+        public double toInternal(int value) {
+            if (value < minimum) {
+                throw new IllegalArgumentException("Value (" + value + ") must be >= minimum (" + minimum + ")");
+            } else if (value > maximum) { 
+                throw new IllegalArgumentException("Value (" + value + ") must be <= maximum (" + maximum + ")"); 
+            }
+            return toNearestInternal(value);
+        }
+
+        /**
+         * Returns the nearest internal representation for the given internal value
+         * @param value
+         * @return
+         */
+        public double toNearestInternal(double value) {
+            return toNearestInternal(toExternalInt(value));
+        }
+
+        /**
+         * Returns the internal representation of the given external value
+         * @param value
+         * @return
+         */
+        private double toNearestInternal(int value) {
+            return value == maximum ? 1d : ((double) value - (double) minimum) * reciprocal;
+        }
+    }
+
     /**
      * An integer range
      * 
@@ -195,6 +950,9 @@ public abstract class KnobRange<T> {
      */
     public static class Integer extends KnobRange<java.lang.Integer> {
 
+        /** The primitive range */
+        private final IntRange range;
+
         /**
          * Default constructor. Range is Integer.MIN_VALUE - Integer.MAX_VALUE
          * 
@@ -213,35 +971,45 @@ public abstract class KnobRange<T> {
          */
         public Integer(java.lang.Integer minimum, java.lang.Integer maximum) {
             super(minimum, maximum);
-            if (minimum >= maximum) { 
-                throw new IllegalArgumentException("Minimum (" + minimum + ") must be < maximum (" + maximum + ")"); 
-            }
+            this.range = new IntRange(minimum, maximum);
+        }
+
+        /**
+         * Returns the primitive range
+         * @return
+         */
+        public IntRange getIntRange() {
+            return range;
         }
 
         @Override
         protected double getStepping() {
-            return toInternal(minimum + 1) - toInternal(minimum);
+            return range.getStepping();
         }
 
         @Override
         protected java.lang.Integer toExternal(double value) {
-            return (int) Math.round(((double) value * ((double)maximum - (double)minimum) + (double) minimum));
+            return range.toExternalInt(value);
+        }
+
+        @Override
+        double toExternalDouble(double value) {
+            return range.toExternalInt(value);
+        }
+
+        @Override
+        long toExternalLong(double value) {
+            return range.toExternalInt(value);
         }
 
         @Override
         protected double toInternal(java.lang.Integer value) {
-            if (value < minimum) {
-                throw new IllegalArgumentException("Value (" + value + ") must be >= minimum (" + minimum + ")");
-            } else if (value > maximum) { 
-                throw new IllegalArgumentException("Value (" + value + ") must be <= maximum (" + maximum + ")"); 
-            }
-            return ((double)value - (double)minimum) / ((double)maximum - (double)minimum);
+            return range.toInternal(value);
         }
 
         @Override
         protected double toNearestInternal(double value) {
-            int extValue = toExternal(value);
-            return ((double)extValue - (double)minimum) / ((double)maximum - (double)minimum);
+            return range.toNearestInternal(value);
         }
     }
 
@@ -252,6 +1020,9 @@ public abstract class KnobRange<T> {
      */
     public static class Long extends KnobRange<java.lang.Long> {
 
+        /** The primitive range */
+        private final LongRange range;
+
         /**
          * Default constructor. Range is Long.MIN_VALUE - Long.MAX_VALUE
          * 
@@ -270,46 +1041,180 @@ public abstract class KnobRange<T> {
          */
         public Long(java.lang.Long minimum, java.lang.Long maximum) {
             super(minimum, maximum);
-            if (minimum >= maximum) { 
-                throw new IllegalArgumentException("Minimum (" + minimum + ") must be < maximum (" + maximum + ")"); 
-            }
+            this.range = new LongRange(minimum, maximum);
         }
 
+        /**
+         * Returns the primitive range
+         * @return
+         */
+        public LongRange getLongRange() {
+            return range;
+        }
 
         @Override
         protected double getStepping() {
-            return toInternal(minimum + 1l) - toInternal(minimum);
+            return range.getStepping();
         }
 
         @Override
         protected java.lang.Long toExternal(double value) {
-            return (long) Math.round(((double) value * ((double)maximum - (double)minimum) + (double) minimum));
+            return range.toExternalLong(value);
+        }
+
+        @Override
+        double toExternalDouble(double value) {
+            return range.toExternalLong(value);
+        }
+
+        @Override
+        long toExternalLong(double value) {
+            return range.toExternalLong(value);
         }
 
         @Override
         protected double toInternal(java.lang.Long value) {
+            return range.toInternal(value);
+        }
+
+        @Override
+        protected double toNearestInternal(double value) {
+            return range.toNearestInternal(value);
+        }
+    }
+
+    /**
+     * A range of primitive longs, which converts values without boxing
+     * 
+     * @author Fabian Prasser
+     */
+    public static final class LongRange {
+
+        /** The minimum */
+        private final long   minimum;
+        /** The maximum */
+        private final long   maximum;
+        /** The span */
+        private final double span;
+        /** The reciprocal of the span */
+        private final double reciprocal;
+
+        /**
+         * Defines minimum and maximum values
+         * 
+         * @param minimum
+         * @param maximum
+         */
+        public LongRange(long minimum, long maximum) {
+            if (minimum >= maximum) { 
+                throw new IllegalArgumentException("Minimum (" + minimum + ") must be < maximum (" + maximum + ")"); 
+            }
+            this.minimum = minimum;
+            this.maximum = maximum;
+            this.span = (double) maximum - (double) minimum;
+            this.reciprocal = 1d / span;
+        }
+
+        /**
+         * Returns whether the value is within the range
+         * @param value
+         * @return
+         */
+        public boolean contains(long value) {
+            return value >= minimum && value <= maximum;
+        }
+
+        /**
+         * Returns the maximum
+         * @return
+         */
+        public long getMaximum() {
+            return maximum;
+        }
+
+        /**
+         * Returns the minimum
+         * @return
+         */
+        public long getMinimum() {
+            return minimum;
+        }
+
+        /**
+         * Returns the stepping
+         * @return
+         */
+        public double getStepping() {
+            return reciprocal;
+        }
+
+        /**
+         * Converts the internal to an external value
+         * @param value
+         * @return
+         */
+        public long toExternalLong(double value) {
+            return Math.round(value * span + (double) minimum);
+        }
+
+        /**
+         * Converts the external to an internal value
+         * @param value
+         * @return
+         */
+        public double toInternal(long value) {
             if (value < minimum) {
                 throw new IllegalArgumentException("Value (" + value + ") must be >= minimum (" + minimum + ")");
             } else if (value > maximum) { 
                 throw new IllegalArgumentException("Value (" + value + ") must be <= maximum (" + maximum + ")"); 
             }
-            return ((double)value - (double)minimum) / ((double)maximum - (double)minimum);
+            return toNearestInternal(value);
         }
 
+        /**
+         * Returns the nearest internal representation for the given internal value
+         * @param value
+         * @return
+         */
+        public double toNearestInternal(double value) {
+            return toNearestInternal(toExternalLong(value));
+        }
 
-        @Override
-        protected double toNearestInternal(double value) {
-            long extValue = toExternal(value);
-            return ((double)extValue - (double)minimum) / ((double)maximum - (double)minimum);
+        /**
+         * Returns the internal representation of the given external value
+         * @param value
+         * @return
+         */
+        private double toNearestInternal(long value) {
+            return value == maximum ? 1d : ((double) value - (double) minimum) * reciprocal;
         }
     }
 
+
     /** Minimum sensitivity*/
     private static final double MIN_SENSITIVITY = 1000d;
 
     /** Maximum sensitivity*/
     private static final double MAX_SENSITIVITY = 10000d;
 
+    /** Maximal number of intervals between discrete values, which are marked with ticks*/
+    private static final int MAX_DISCRETE_TICKS = 72;
+
+    /**
+     * Returns the index of the discrete value, which is nearest to the given internal value
+     * @param value
+     * @param count
+     * @return
+     */
+    private static int getIndex(double value, int count) {
+        if (value <= 0d) {
+            return 0;
+        } else if (value >= 1d) {
+            return count - 1;
+        }
+        return (int) Math.round(value * (double) (count - 1));
+    }
+
     /** The minimum*/
     protected final T minimum;
 
@@ -359,6 +1264,14 @@ public abstract class KnobRange<T> {
      */
     protected abstract double getStepping();
 
+    /**
+     * Returns the internal positions of the ticks, or null if ticks should be derived from the stepping
+     * @return
+     */
+    protected double[] getTickPositions() {
+        return null;
+    }
+
     /**
      * Converts the internal to an external value
      * @param value
@@ -379,4 +1292,32 @@ public abstract class KnobRange<T> {
      * @return
      */
     protected abstract double toNearestInternal(double value);
+
+    /**
+     * Converts the internal to an external value, which is returned as a double
+     * @param value
+     * @return
+     */
+    double toExternalDouble(double value) {
+        T external = toExternal(value);
+        if (external instanceof java.lang.Character) {
+            return (java.lang.Character) external;
+        }
+        return ((Number) external).doubleValue();
+    }
+
+    /**
+     * Converts the internal to an external value, which is rounded to a long
+     * @param value
+     * @return
+     */
+    long toExternalLong(double value) {
+        T external = toExternal(value);
+        if (external instanceof java.lang.Character) {
+            return (java.lang.Character) external;
+        } else if (external instanceof java.lang.Double || external instanceof java.lang.Float) {
+            return Math.round(((Number) external).doubleValue());
+        }
+        return ((Number) external).longValue();
+    }
 }
@@ -0,0 +1,264 @@
+/* ******************************************************************************
+ * Copyright (c) 2014 - 2015 Fabian Prasser.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Fabian Prasser - initial API and implementation
+ ******************************************************************************/
+
+package de.linearbits.swt.widgets;
+
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * This class renders an oval with 3d effects without using AWT. It produces the same layers as the
+ * {@link KnobRenderer} (shadow, bottom highlight, radial edge, inner highlight and specular highlight),
+ * but evaluates the gradients in software and writes the result straight into an ARGB buffer.
+ *
+ * @author Fabian Prasser
+ */
+class KnobRasterizer {
+
+    /** Java2D moves focus points, which are outside of a gradient's circle, to this fraction of the radius */
+    private static final double SCALEBACK = 0.99d;
+
+    /**
+     * Clamps the value to [0, 1]
+     * @param value
+     * @return
+     */
+    private static double clamp(double value) {
+        return value < 0d ? 0d : (value > 1d ? 1d : value);
+    }
+
+    /**
+     * Returns the parameter of a radial gradient with a focus point for the given position, i.e.
+     * the distance between focus and position relative to the distance between the focus and the
+     * circle in the same direction.
+     *
+     * @param x
+     * @param y
+     * @param centerX
+     * @param centerY
+     * @param focusX
+     * @param focusY
+     * @param radius
+     * @return
+     */
+    private static double getGradient(double x, double y,
+                                      double centerX, double centerY,
+                                      double focusX, double focusY,
+                                      double radius) {
+        double dX = x - focusX;
+        double dY = y - focusY;
+        double a = dX * dX + dY * dY;
+        if (a == 0d) return 0d;
+        double oX = focusX - centerX;
+        double oY = focusY - centerY;
+        double b = dX * oX + dY * oY;
+        double c = oX * oX + oY * oY - radius * radius;
+        return a / (-b + Math.sqrt(b * b - a * c));
+    }
+
+    /**
+     * Renders a knob with the given width and height into an image with an alpha channel
+     *
+     * @param display
+     * @param profile
+     * @param width
+     * @param height
+     * @return
+     */
+    Image render(Display display, KnobColorProfile profile, int width, int height) {
+        return new Image(display, KnobRenderer.toImageData(render(profile.getPackedColors(), width, height), width, height));
+    }
+
+    /**
+     * Renders a knob with the given width and height into an array of
+     * non-premultiplied ARGB pixels, in the orientation used by Java2D
+     *
+     * @param profile Packed colors of the profile
+     * @param width
+     * @param height
+     * @return
+     */
+    int[] render(int[] profile, int width, int height) {
+
+        // Fill color
+        double[] fill = toUnits(profile[KnobColorProfile.INDEX_BACKGROUND], 1d);
+
+        // Shadows at the top and highlights at the bottom
+        double[] shadow = toBinaryUnits(profile[KnobColorProfile.INDEX_SHADOW], 0d);
+        double[] bottom = toBinaryUnits(profile[KnobColorProfile.INDEX_HIGHLIGHT_BOTTOM], 0d);
+        double linearAlpha = 102d / 255d;
+
+        // Dark edges
+        double[] edgeFrom = toUnits(profile[KnobColorProfile.INDEX_EDGE_FROM], 127d / 255d);
+        double[] edgeTo = toBinaryUnits(profile[KnobColorProfile.INDEX_EDGE_TO], 204d / 255d);
+        double edgeX = width / 2d;
+        double edgeY = height / 2d;
+        double edgeRadius = width / 2d;
+
+        // Inner highlight at the bottom, in a space that is scaled by 0.5 vertically
+        double[] innerFrom = toUnits(profile[KnobColorProfile.INDEX_HIGHLIGHT_INNER_FROM], 1d);
+        double[] innerTo = toUnits(profile[KnobColorProfile.INDEX_HIGHLIGHT_INNER_TO], 0d);
+        double innerX = width / 2d;
+        double innerY = height * 1.5d;
+        double innerRadius = (double) (width / 2.3f);
+        double[] innerFocus = getFocus(innerX, innerY, width / 2d, height * 1.75d + 6d, innerRadius);
+
+        // Specular highlight at the top left
+        double[] specular = toBinaryUnits(profile[KnobColorProfile.INDEX_HIGHLIGHT_SPECULAR], 0d);
+        double specularX = width / 2d;
+        double specularY = height / 2d;
+        double specularRadius = (double) (width / 1.4f);
+        double[] specularFocus = getFocus(specularX, specularY, 45d, 25d, specularRadius);
+
+        // The oval
+        double radiusX = (width - 1) / 2d;
+        double radiusY = (height - 1) / 2d;
+        double radius = Math.min(radiusX, radiusY);
+
+        int[] result = new int[width * height];
+        double[] pixel = new double[4];
+        for (int y = 0; y < height; y++) {
+            double pY = y + 0.5d;
+            for (int x = 0; x < width; x++) {
+                double pX = x + 0.5d;
+
+                // Coverage of the oval
+                double dX = (pX - radiusX) / radiusX;
+                double dY = (pY - radiusY) / radiusY;
+                double coverage = clamp((1d - Math.sqrt(dX * dX + dY * dY)) * radius + 0.5d);
+                if (coverage == 0d) {
+                    continue;
+                }
+
+                // Solid fill
+                pixel[0] = pixel[1] = pixel[2] = pixel[3] = 0d;
+                composite(pixel, fill[0], fill[1], fill[2], fill[3], coverage);
+
+                // Linear gradients
+                double t = clamp(pY / height);
+                composite(pixel, shadow[0], shadow[1], shadow[2], linearAlpha * (1d - t), coverage);
+                composite(pixel, bottom[0], bottom[1], bottom[2], linearAlpha * t, coverage);
+
+                // Radial edge. Like in Java2D, radial gradients are sampled at integer coordinates
+                double eX = x - edgeX;
+                double eY = y - edgeY;
+                t = clamp(Math.sqrt(eX * eX + eY * eY) / edgeRadius);
+                composite(pixel, edgeFrom, edgeTo, t, coverage);
+
+                // Inner highlight
+                t = getGradient(x, y * 2d, innerX, innerY, innerFocus[0], innerFocus[1], innerRadius);
+                composite(pixel, innerFrom, innerTo, clamp(t / 0.8d), coverage);
+
+                // Specular highlight
+                t = getGradient(x, y, specularX, specularY, specularFocus[0], specularFocus[1], specularRadius);
+                composite(pixel, specular[0], specular[1], specular[2], linearAlpha * (1d - clamp(t / 0.5d)), coverage);
+
+                // Store non-premultiplied
+                double alpha = pixel[3];
+                int a = (int) Math.round(alpha * 255d);
+                int r = (int) Math.round(pixel[0] / alpha * 255d);
+                int g = (int) Math.round(pixel[1] / alpha * 255d);
+                int b = (int) Math.round(pixel[2] / alpha * 255d);
+                result[y * width + x] = (a << 24) | (r << 16) | (g << 8) | b;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Composites the given color onto the given premultiplied pixel
+     *
+     * @param pixel
+     * @param red
+     * @param green
+     * @param blue
+     * @param alpha
+     * @param coverage
+     */
+    private void composite(double[] pixel, double red, double green, double blue, double alpha, double coverage) {
+        double a = alpha * coverage;
+        double inverse = 1d - a;
+        pixel[0] = red * a + pixel[0] * inverse;
+        pixel[1] = green * a + pixel[1] * inverse;
+        pixel[2] = blue * a + pixel[2] * inverse;
+        pixel[3] = a + pixel[3] * inverse;
+    }
+
+    /**
+     * Composites the color at the given position of a gradient between two colors onto the given
+     * premultiplied pixel. Colors are interpolated without premultiplication, like in Java2D.
+     *
+     * @param pixel
+     * @param from
+     * @param to
+     * @param t
+     * @param coverage
+     */
+    private void composite(double[] pixel, double[] from, double[] to, double t, double coverage) {
+        double s = 1d - t;
+        composite(pixel,
+                  from[0] * s + to[0] * t,
+                  from[1] * s + to[1] * t,
+                  from[2] * s + to[2] * t,
+                  from[3] * s + to[3] * t,
+                  coverage);
+    }
+
+    /**
+     * Returns the focus point of a radial gradient, which is moved inside of the circle, if required
+     *
+     * @param centerX
+     * @param centerY
+     * @param focusX
+     * @param focusY
+     * @param radius
+     * @return
+     */
+    private double[] getFocus(double centerX, double centerY, double focusX, double focusY, double radius) {
+        double dX = focusX - centerX;
+        double dY = focusY - centerY;
+        double distance = Math.sqrt(dX * dX + dY * dY);
+        if (distance > radius * SCALEBACK) {
+            double scale = radius * SCALEBACK / distance;
+            return new double[] { centerX + dX * scale, centerY + dY * scale };
+        }
+        return new double[] { focusX, focusY };
+    }
+
+    /**
+     * Converts the given packed color into components between 0 and 1, where each channel is
+     * either 0 or 1. This mirrors how the AWT-based renderer converts these colors.
+     *
+     * @param color
+     * @param alpha
+     * @return
+     */
+    private double[] toBinaryUnits(int color, double alpha) {
+        return new double[] { Math.round((double) ((color >> 16) & 0xFF) / 255d),
+                              Math.round((double) ((color >> 8) & 0xFF) / 255d),
+                              Math.round((double) (color & 0xFF) / 255d),
+                              alpha };
+    }
+
+    /**
+     * Converts the given packed color into components between 0 and 1
+     *
+     * @param color
+     * @param alpha
+     * @return
+     */
+    private double[] toUnits(int color, double alpha) {
+        return new double[] { (double) ((color >> 16) & 0xFF) / 255d,
+                              (double) ((color >> 8) & 0xFF) / 255d,
+                              (double) (color & 0xFF) / 255d,
+                              alpha };
+    }
+}
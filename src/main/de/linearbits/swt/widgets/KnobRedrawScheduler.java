@@ -0,0 +1,125 @@
+/* ******************************************************************************
+ * Copyright (c) 2014 - 2015 Fabian Prasser.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Fabian Prasser - initial API and implementation
+ ******************************************************************************/
+
+package de.linearbits.swt.widgets;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Coalesces redraws of knobs. There is one instance per display, which is shared by all knobs
+ * on this display. Knobs are redrawn at most once per frame, at a configurable frame rate.
+ *
+ * @author Fabian Prasser
+ */
+class KnobRedrawScheduler {
+
+    /** Key for storing the scheduler with the display */
+    private static final String KEY          = KnobRedrawScheduler.class.getName();
+    /** Default number of frames per second */
+    static final int            DEFAULT_RATE = 60;
+
+    /**
+     * Returns the scheduler for the given display
+     *
+     * @param display
+     * @return
+     */
+    static KnobRedrawScheduler get(Display display) {
+        KnobRedrawScheduler scheduler = (KnobRedrawScheduler) display.getData(KEY);
+        if (scheduler == null) {
+            scheduler = new KnobRedrawScheduler(display);
+            display.setData(KEY, scheduler);
+        }
+        return scheduler;
+    }
+
+    /** Display */
+    private final Display       display;
+    /** Knobs to be redrawn */
+    private List<Knob<?>>       knobs     = new ArrayList<Knob<?>>();
+    /** Knobs being redrawn */
+    private List<Knob<?>>       flushing  = new ArrayList<Knob<?>>();
+    /** Frames per second, zero if redraws are not coalesced */
+    private int                 rate      = DEFAULT_RATE;
+    /** Whether a frame has been scheduled */
+    private boolean             scheduled = false;
+    /** Redraws all knobs */
+    private final Runnable      flush     = new Runnable() {
+                                              @Override
+                                              public void run() {
+                                                  flush();
+                                              }
+                                          };
+
+    /**
+     * Creates a new instance
+     *
+     * @param display
+     */
+    private KnobRedrawScheduler(Display display) {
+        this.display = display;
+    }
+
+    /**
+     * Returns the number of frames per second, zero if redraws are not coalesced
+     *
+     * @return
+     */
+    int getRate() {
+        return rate;
+    }
+
+    /**
+     * Schedules a redraw of the given knob with the next frame. Knobs must only
+     * be scheduled once per frame.
+     *
+     * @param knob
+     */
+    void schedule(Knob<?> knob) {
+        knobs.add(knob);
+        if (!scheduled) {
+            scheduled = true;
+            display.timerExec(Math.max(1, 1000 / rate), flush);
+        }
+    }
+
+    /**
+     * Sets the number of frames per second, zero if redraws should not be coalesced
+     *
+     * @param rate
+     */
+    void setRate(int rate) {
+        this.rate = rate;
+        if (rate == 0 && scheduled) {
+            display.timerExec(-1, flush);
+            flush();
+        }
+    }
+
+    /**
+     * Redraws all scheduled knobs
+     */
+    private void flush() {
+        scheduled = false;
+        List<Knob<?>> list = knobs;
+        knobs = flushing;
+        flushing = list;
+        for (Knob<?> knob : list) {
+            if (!knob.isDisposed()) {
+                knob.flushRedraw();
+            }
+        }
+        list.clear();
+    }
+}
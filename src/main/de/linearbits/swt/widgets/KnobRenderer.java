@@ -21,25 +21,18 @@ import java.awt.RenderingHints;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
-import java.awt.image.DirectColorModel;
-import java.awt.image.IndexColorModel;
-import java.awt.image.WritableRaster;
+import java.awt.image.DataBufferInt;
 
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.ImageData;
 import org.eclipse.swt.graphics.PaletteData;
-import org.eclipse.swt.graphics.RGB;
 import org.eclipse.swt.widgets.Display;
 
 /**
- * This class renders an oval with 3d effects. It mostly consists of code borrowed from the TimingFramework and JFreeChart.
+ * This class renders an oval with 3d effects. It mostly consists of code borrowed from the TimingFramework.
  * 
  * @author Fabian Prasser
  * @author Romain Guy
- * @author Henry Proudhon
- * @author Rainer Blessing
- * @author David Gilbert
- * @author Christoph Beck
  */
 class KnobRenderer {
 
@@ -53,83 +46,34 @@ class KnobRenderer {
     }
 
     /**
-     * JFreeChart : a free chart library for the Java(tm) platform
-     * (C) Copyright 2000-2007, by Object Refinery Limited and Contributors.
-     * 
-     * Project Info: http://www.jfree.org/jfreechart/index.html
-     * 
-     * This library is free software; you can redistribute it and/or modify it
-     * under the terms of the GNU Lesser General Public License as published by
-     * the Free Software Foundation; either version 2.1 of the License, or (at
-     * your option) any later version.
-     * 
-     * This library is distributed in the hope that it will be useful, but
-     * WITHOUT ANY WARRANTY; without even the implied warranty of
-     * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU Lesser
-     * General Public License for more details.
-     * 
-     * You should have received a copy of the GNU Lesser General Public License
-     * along with this library; if not, write to the Free Software Foundation,
-     * Inc., 51 Franklin Street, Fifth Floor, Boston, MA 02110-1301, USA.
-     * 
-     * Original Author: Henry Proudhon (henry.proudhon AT ensmp.fr);
-     * Contributor(s): Rainer Blessing; David Gilbert
-     * (david.gilbert@object-refinery.com); Christoph Beck.
+     * Converts non-premultiplied ARGB pixels, in the orientation used by Java2D, into image data
+     * with an alpha channel. The result is rotated by 180 degrees. Edges therefore remain smooth
+     * when the image is drawn, and no transparent color is needed.
      * 
+     * @param pixels
+     * @param width
+     * @param height
+     * @return
      */
-    private ImageData convertToSWT(BufferedImage bufferedImage) {
-
-        if (bufferedImage.getColorModel() instanceof DirectColorModel) {
-            DirectColorModel colorModel = (DirectColorModel) bufferedImage.getColorModel();
-            PaletteData palette = new PaletteData(colorModel.getRedMask(),
-                                                  colorModel.getGreenMask(),
-                                                  colorModel.getBlueMask());
-            ImageData data = new ImageData(bufferedImage.getWidth(),
-                                           bufferedImage.getHeight(),
-                                           colorModel.getPixelSize(),
-                                           palette);
-            WritableRaster raster = bufferedImage.getRaster();
-            int[] pixelArray = new int[3];
-            for (int y = 0; y < data.height; y++) {
-                for (int x = 0; x < data.width; x++) {
-                    raster.getPixel(x, y, pixelArray);
-                    int pixel = palette.getPixel(new RGB(pixelArray[0],
-                                                         pixelArray[1],
-                                                         pixelArray[2]));
-                    data.setPixel(data.width - x - 1, data.height - y - 1, pixel);
-                }
-            }
-            return data;
-        } else if (bufferedImage.getColorModel() instanceof IndexColorModel) {
-            IndexColorModel colorModel = (IndexColorModel) bufferedImage.getColorModel();
-            int size = colorModel.getMapSize();
-            byte[] reds = new byte[size];
-            byte[] greens = new byte[size];
-            byte[] blues = new byte[size];
-            colorModel.getReds(reds);
-            colorModel.getGreens(greens);
-            colorModel.getBlues(blues);
-            RGB[] rgbs = new RGB[size];
-            for (int i = 0; i < rgbs.length; i++) {
-                rgbs[i] = new RGB(reds[i] & 0xFF, greens[i] & 0xFF, blues[i] & 0xFF);
+    static ImageData toImageData(int[] pixels, int width, int height) {
+
+        ImageData data = new ImageData(width, height, 24, new PaletteData(0xFF0000, 0xFF00, 0xFF));
+        byte[] target = data.data;
+        byte[] alpha = new byte[width * height];
+        for (int y = 0; y < height; y++) {
+            int source = (height - y - 1) * width + width - 1;
+            int index = y * data.bytesPerLine;
+            int alphaIndex = y * width;
+            for (int x = 0; x < width; x++) {
+                int pixel = pixels[source--];
+                target[index++] = (byte) (pixel >> 16);
+                target[index++] = (byte) (pixel >> 8);
+                target[index++] = (byte) pixel;
+                alpha[alphaIndex++] = (byte) (pixel >>> 24);
             }
-            PaletteData palette = new PaletteData(rgbs);
-            ImageData data = new ImageData(bufferedImage.getWidth(),
-                                           bufferedImage.getHeight(),
-                                           colorModel.getPixelSize(),
-                                           palette);
-            data.transparentPixel = colorModel.getTransparentPixel();
-            WritableRaster raster = bufferedImage.getRaster();
-            int[] pixelArray = new int[1];
-            for (int y = 0; y < data.height; y++) {
-                for (int x = 0; x < data.width; x++) {
-                    raster.getPixel(x, y, pixelArray);
-                    data.setPixel(data.width - x - 1, data.height - y - 1, pixelArray[0]);
-                }
-            }
-            return data;
         }
-        return null;
+        data.alphaData = alpha;
+        return data;
     }
 
     /**
@@ -159,9 +103,19 @@ class KnobRenderer {
      * LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
      * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
      * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
-     * @param profile 
+     * @param profile Packed colors of the profile
      */
-    private void render(Graphics g, Color background, KnobColorProfile profile, int width, int height) {
+    private void render(Graphics g, Color background, int[] profile, int width, int height) {
+
+        // Colors of the profile
+        Color body = new Color(profile[KnobColorProfile.INDEX_BACKGROUND]);
+        Color shadow = new Color(profile[KnobColorProfile.INDEX_SHADOW]);
+        Color highlightBottom = new Color(profile[KnobColorProfile.INDEX_HIGHLIGHT_BOTTOM]);
+        Color edgeFrom = new Color(profile[KnobColorProfile.INDEX_EDGE_FROM]);
+        Color edgeTo = new Color(profile[KnobColorProfile.INDEX_EDGE_TO]);
+        Color highlightInnerFrom = new Color(profile[KnobColorProfile.INDEX_HIGHLIGHT_INNER_FROM]);
+        Color highlightInnerTo = new Color(profile[KnobColorProfile.INDEX_HIGHLIGHT_INNER_TO]);
+        Color highlightSpecular = new Color(profile[KnobColorProfile.INDEX_HIGHLIGHT_SPECULAR]);
 
         Graphics2D g2 = (Graphics2D) g;
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
@@ -173,42 +127,42 @@ class KnobRenderer {
         g2.fillRect(0, 0, width, height);
 
         // Fills the circle with solid blue color
-        Color c = new Color(profile.getBackground().getRed(), 
-                            profile.getBackground().getGreen(), 
-                            profile.getBackground().getBlue());
+        Color c = new Color(body.getRed(), 
+                            body.getGreen(), 
+                            body.getBlue());
         g2.setColor(c);
         g2.fillOval(0, 0, width - 1, height - 1);
 
         // Adds shadows at the top
         Paint p;
-		Color c1 = new Color(byteToFloat(profile.getShadow().getRed()),
-		                     byteToFloat(profile.getShadow().getGreen()),
-		                     byteToFloat(profile.getShadow().getBlue()), 0.4f);
-		Color c2 = new Color(byteToFloat(profile.getShadow().getRed()),
-		                     byteToFloat(profile.getShadow().getGreen()),
-		                     byteToFloat(profile.getShadow().getBlue()), 0.0f);
+		Color c1 = new Color(byteToFloat(shadow.getRed()),
+		                     byteToFloat(shadow.getGreen()),
+		                     byteToFloat(shadow.getBlue()), 0.4f);
+		Color c2 = new Color(byteToFloat(shadow.getRed()),
+		                     byteToFloat(shadow.getGreen()),
+		                     byteToFloat(shadow.getBlue()), 0.0f);
         p = new GradientPaint(0, 0, c1, 0, height, c2);
         g2.setPaint(p);
         g2.fillOval(0, 0, width - 1, height - 1);
 
         // Adds highlights at the bottom
-        c1 = new Color(byteToFloat(profile.getHighlightBottom().getRed()), 
-                       byteToFloat(profile.getHighlightBottom().getGreen()), 
-                       byteToFloat(profile.getHighlightBottom().getBlue()), 0.0f);
-        c2 = new Color(byteToFloat(profile.getHighlightBottom().getRed()), 
-                       byteToFloat(profile.getHighlightBottom().getGreen()), 
-                       byteToFloat(profile.getHighlightBottom().getBlue()), 0.4f);
+        c1 = new Color(byteToFloat(highlightBottom.getRed()), 
+                       byteToFloat(highlightBottom.getGreen()), 
+                       byteToFloat(highlightBottom.getBlue()), 0.0f);
+        c2 = new Color(byteToFloat(highlightBottom.getRed()), 
+                       byteToFloat(highlightBottom.getGreen()), 
+                       byteToFloat(highlightBottom.getBlue()), 0.4f);
         p = new GradientPaint(0, 0, c1, 0, height, c2);
         g2.setPaint(p);
         g2.fillOval(0, 0, width - 1, height - 1);
 
         // Creates dark edges for 3D effect
-        c1 = new Color(profile.getEdgeFrom().getRed(), 
-                       profile.getEdgeFrom().getGreen(), 
-                       profile.getEdgeFrom().getBlue(), 127);
-        c2 = new Color(byteToFloat(profile.getEdgeTo().getRed()), 
-                       byteToFloat(profile.getEdgeTo().getGreen()), 
-                       byteToFloat(profile.getEdgeTo().getBlue()), 0.8f);
+        c1 = new Color(edgeFrom.getRed(), 
+                       edgeFrom.getGreen(), 
+                       edgeFrom.getBlue(), 127);
+        c2 = new Color(byteToFloat(edgeTo.getRed()), 
+                       byteToFloat(edgeTo.getGreen()), 
+                       byteToFloat(edgeTo.getBlue()), 0.8f);
         p = new RadialGradientPaint(new Point2D.Double(width / 2.0, height / 2.0),
                                     width / 2.0f,
                                     new float[] { 0.0f, 1.0f },
@@ -217,12 +171,12 @@ class KnobRenderer {
         g2.fillOval(0, 0, width - 1, height - 1);
 
         // Adds oval inner highlight at the bottom
-        c1 = new Color(profile.getHighlightInnerFrom().getRed(), 
-                       profile.getHighlightInnerFrom().getGreen(), 
-                       profile.getHighlightInnerFrom().getBlue(), 255);
-        c2 = new Color(profile.getHighlightInnerTo().getRed(), 
-                       profile.getHighlightInnerTo().getGreen(), 
-                       profile.getHighlightInnerTo().getBlue(), 0);
+        c1 = new Color(highlightInnerFrom.getRed(), 
+                       highlightInnerFrom.getGreen(), 
+                       highlightInnerFrom.getBlue(), 255);
+        c2 = new Color(highlightInnerTo.getRed(), 
+                       highlightInnerTo.getGreen(), 
+                       highlightInnerTo.getBlue(), 0);
         p = new RadialGradientPaint(new Point2D.Double(width / 2.0, height * 1.5),
                                     width / 2.3f,
                                     new Point2D.Double(width / 2.0, height * 1.75 + 6),
@@ -235,12 +189,12 @@ class KnobRenderer {
         g2.fillOval(0, 0, width - 1, height - 1);
 
         // Adds oval specular highlight at the top left
-        c1 = new Color(byteToFloat(profile.getHighlightSpecular().getRed()), 
-                       byteToFloat(profile.getHighlightSpecular().getGreen()), 
-                       byteToFloat(profile.getHighlightSpecular().getBlue()), 0.4f);
-        c2 = new Color(byteToFloat(profile.getHighlightSpecular().getRed()), 
-                       byteToFloat(profile.getHighlightSpecular().getGreen()), 
-                       byteToFloat(profile.getHighlightSpecular().getBlue()), 0.0f);
+        c1 = new Color(byteToFloat(highlightSpecular.getRed()), 
+                       byteToFloat(highlightSpecular.getGreen()), 
+                       byteToFloat(highlightSpecular.getBlue()), 0.4f);
+        c2 = new Color(byteToFloat(highlightSpecular.getRed()), 
+                       byteToFloat(highlightSpecular.getGreen()), 
+                       byteToFloat(highlightSpecular.getBlue()), 0.0f);
         p = new RadialGradientPaint(new Point2D.Double(width / 2.0, height / 2.0),
                                     width / 1.4f,
                                     new Point2D.Double(45.0, 25.0),
@@ -255,21 +209,33 @@ class KnobRenderer {
     }
     
     /**
-     * Renders a knob with the given width and height
+     * Renders a knob with the given width and height into an image with an alpha channel
+     * 
+     * @param display
+     * @param profile
+     * @param width
+     * @param height
+     * @return
+     */
+    Image render(Display display, KnobColorProfile profile, int width, int height) {
+        return new Image(display, toImageData(render(profile.getPackedColors(), width, height), width, height));
+    }
+
+    /**
+     * Renders a knob with the given width and height into an array of
+     * non-premultiplied ARGB pixels, in the orientation used by Java2D
      * 
-     * @param transparent
+     * @param profile Packed colors of the profile
      * @param width
      * @param height
      * @return
      */
-    Image render(Display display, org.eclipse.swt.graphics.Color transparent, KnobColorProfile profile, int width, int height) {
+    int[] render(int[] profile, int width, int height) {
 
-        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
         Graphics g = image.getGraphics();
-        render(g, new Color(transparent.getRed(), transparent.getGreen(), transparent.getBlue()), profile, width, height);
+        render(g, new Color(0, 0, 0, 0), profile, width, height);
         g.dispose();
-        ImageData data = convertToSWT(image);
-        data.transparentPixel = data.palette.getPixel(transparent.getRGB());
-        return new Image(display, data);
+        return ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
     }
 }
@@ -0,0 +1,157 @@
+/* ******************************************************************************
+ * Copyright (c) 2014 - 2015 Fabian Prasser.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Fabian Prasser - initial API and implementation
+ ******************************************************************************/
+
+package de.linearbits.swt.widgets;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Rectangle;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Monitor;
+
+/**
+ * Determines the factor by which knobs are rendered at a higher resolution on HiDPI displays,
+ * e.g. Retina displays. Factors may be fractional, e.g. 1.25 or 1.5. They are determined once per
+ * monitor from SWT's own device information and shared by all knobs on the display. Unlike querying
+ * the default screen device of AWT, this does not initialize the AWT toolkit. Where SWT does not map
+ * points to device pixels, the factor is always 1, because rendering at a higher resolution would
+ * only be scaled down again.
+ *
+ * @author Fabian Prasser
+ */
+class KnobScaling {
+
+    /** Key for storing the scale factors with the display */
+    private static final String KEY         = KnobScaling.class.getName();
+    /** Minimal scale factor */
+    private static final float  MIN_SCALE   = 1f;
+    /** Maximal scale factor */
+    private static final float  MAX_SCALE   = 4f;
+
+    /**
+     * Returns the scale factor for the given monitor of the given display
+     *
+     * @param display
+     * @param monitor
+     * @return
+     */
+    static float getScale(Display display, Monitor monitor) {
+        @SuppressWarnings("unchecked")
+        Map<Monitor, Float> scales = (Map<Monitor, Float>) display.getData(KEY);
+        if (scales == null) {
+            scales = new HashMap<Monitor, Float>();
+            display.setData(KEY, scales);
+        }
+        Float scale = scales.get(monitor);
+        if (scale == null) {
+            scale = detectScale(monitor);
+            scale = Math.round(scale * 100f) / 100f;
+            scale = Math.min(Math.max(scale, MIN_SCALE), MAX_SCALE);
+            scales.put(monitor, scale);
+        }
+        return scale;
+    }
+
+    /**
+     * Detects the scale of the given monitor
+     *
+     * @param monitor
+     * @return
+     */
+    private static float detectScale(Monitor monitor) {
+
+        // OS X: the backing scale factor of the screen
+        if ("cocoa".equals(SWT.getPlatform())) {
+            return detectScaleCocoa(monitor);
+        }
+
+        // Recent versions of SWT: the zoom of the monitor or of the device
+        Object zoom = invoke(monitor, Monitor.class.getName(), "getZoom");
+        if (!(zoom instanceof Number)) {
+            zoom = invoke(null, "org.eclipse.swt.internal.DPIUtil", "getDeviceZoom");
+        }
+        if (zoom instanceof Number) {
+            return ((Number) zoom).floatValue() / 100f;
+        }
+
+        // Otherwise, SWT does not map points to device pixels, e.g. SWT 4.2 on GTK and Windows.
+        // Knobs are then painted in device pixels, whatever the resolution of the device is.
+        return 1f;
+    }
+
+    /**
+     * Detects the backing scale factor of the screen matching the monitor, or of the main screen
+     *
+     * @param monitor
+     * @return
+     */
+    private static float detectScaleCocoa(Monitor monitor) {
+        String clazz = "org.eclipse.swt.internal.cocoa.NSScreen";
+        Rectangle bounds = monitor.getBounds();
+        try {
+            Object screens = Class.forName(clazz).getMethod("screens").invoke(null);
+            long count = ((Number) screens.getClass().getMethod("count").invoke(screens)).longValue();
+            Method objectAtIndex = screens.getClass().getMethod("objectAtIndex", long.class);
+            Class<?> id = Class.forName("org.eclipse.swt.internal.cocoa.id");
+            for (long i = 0; i < count; i++) {
+                Object screen = Class.forName(clazz).getConstructor(id).newInstance(objectAtIndex.invoke(screens, i));
+                Object frame = screen.getClass().getMethod("frame").invoke(screen);
+                if (getInt(frame, "x") == bounds.x && getInt(frame, "width") == bounds.width &&
+                    getInt(frame, "height") == bounds.height) {
+                    Object scale = invoke(screen, clazz, "backingScaleFactor");
+                    if (scale instanceof Number) {
+                        return ((Number) scale).floatValue();
+                    }
+                }
+            }
+        } catch (Exception e) {
+            /* Fall back to the main screen*/
+        }
+        Object screen = invoke(null, clazz, "mainScreen");
+        Object scale = screen == null ? null : invoke(screen, clazz, "backingScaleFactor");
+        return scale instanceof Number ? ((Number) scale).floatValue() : 1f;
+    }
+
+    /**
+     * Returns the value of the given public numeric field, rounded to an int
+     *
+     * @param object
+     * @param field
+     * @return
+     * @throws Exception
+     */
+    private static int getInt(Object object, String field) throws Exception {
+        Field f = object.getClass().getField(field);
+        return (int) Math.round(((Number) f.get(object)).doubleValue());
+    }
+
+    /**
+     * Invokes the given public method without parameters via reflection, because it is not
+     * available on all platforms and in all versions of SWT. Returns null on failure.
+     *
+     * @param object The object, null for static methods
+     * @param clazz
+     * @param method
+     * @return
+     */
+    private static Object invoke(Object object, String clazz, String method) {
+        try {
+            Method m = Class.forName(clazz).getMethod(method);
+            return m.invoke(object);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/* ******************************************************************************
+ * Copyright (c) 2014 - 2015 Fabian Prasser.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Fabian Prasser - initial API and implementation
+ ******************************************************************************/
+
+package de.linearbits.swt.widgets;
+
+/**
+ * Counters about rendering and caching of images of all knobs on a display, e.g. for checking how
+ * many backgrounds have been rendered while a window was resized, or how well the images fit into
+ * the budget of the image cache. Obtain an instance with
+ * {@link Knob#getStatistics(org.eclipse.swt.widgets.Display)}. Counters are updated on the
+ * UI thread.
+ *
+ * @author Fabian Prasser
+ */
+public class KnobStatistics {
+
+    /** Number of rendered backgrounds */
+    private long backgroundRenders = 0L;
+    /** Number of handled resize events */
+    private long resizes           = 0L;
+    /** Number of paints with a scaled interim background */
+    private long interimPaints     = 0L;
+    /** Number of images, which have been found in the cache */
+    private long hits              = 0L;
+    /** Number of images, which have been rendered and added to the cache */
+    private long misses            = 0L;
+    /** Number of images, which have been evicted from the cache */
+    private long evictions         = 0L;
+    /** Number of bytes of the images in the cache */
+    private long bytes             = 0L;
+    /** Maximal number of bytes of the images in the cache */
+    private long limit             = 0L;
+
+    /**
+     * Creates a new instance
+     */
+    KnobStatistics() {
+        // Empty by design
+    }
+
+    /**
+     * Returns the number of backgrounds, which have been rendered
+     *
+     * @return
+     */
+    public long getBackgroundRenders() {
+        return backgroundRenders;
+    }
+
+    /**
+     * Returns the number of bytes of all images, which are currently held by the cache
+     *
+     * @return
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Returns the number of images, which have been evicted from the cache, because it exceeded its budget
+     *
+     * @return
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the number of images, which have been found in the cache
+     *
+     * @return
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the maximal number of bytes of the images in the cache. This is the budget of the cache,
+     * unless the images, which the visible knobs have used when they have been painted last, need more
+     * space.
+     *
+     * @return
+     */
+    public long getLimit() {
+        return limit;
+    }
+
+    /**
+     * Returns the number of paints, which used the scaled background from before a resize
+     *
+     * @return
+     */
+    public long getInterimPaints() {
+        return interimPaints;
+    }
+
+    /**
+     * Returns the number of images, which have not been found in the cache and have been rendered
+     *
+     * @return
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of resize events, which have been handled
+     *
+     * @return
+     */
+    public long getResizes() {
+        return resizes;
+    }
+
+    /**
+     * Resets all counters. The number of bytes held by the cache and its limit are not counters and
+     * are not reset.
+     */
+    public void reset() {
+        backgroundRenders = 0L;
+        resizes = 0L;
+        interimPaints = 0L;
+        hits = 0L;
+        misses = 0L;
+        evictions = 0L;
+    }
+
+    @Override
+    public String toString() {
+        return "KnobStatistics[backgroundRenders=" + backgroundRenders + ", resizes=" + resizes +
+               ", interimPaints=" + interimPaints + ", hits=" + hits + ", misses=" + misses +
+               ", evictions=" + evictions + ", bytes=" + bytes + ", limit=" + limit + "]";
+    }
+
+    /**
+     * Counts a rendered background
+     */
+    void backgroundRendered() {
+        backgroundRenders++;
+    }
+
+    /**
+     * Counts an evicted image
+     */
+    void evicted() {
+        evictions++;
+    }
+
+    /**
+     * Counts an image found in the cache
+     */
+    void hit() {
+        hits++;
+    }
+
+    /**
+     * Counts a paint with an interim background
+     */
+    void interimPainted() {
+        interimPaints++;
+    }
+
+    /**
+     * Counts an image, which has not been found in the cache
+     */
+    void missed() {
+        misses++;
+    }
+
+    /**
+     * Counts a resize event
+     */
+    void resized() {
+        resizes++;
+    }
+
+    /**
+     * Sets the number of bytes held by the cache
+     *
+     * @param bytes
+     */
+    void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Sets the maximal number of bytes of the images in the cache
+     *
+     * @param limit
+     */
+    void setLimit(long limit) {
+        this.limit = limit;
+    }
+}
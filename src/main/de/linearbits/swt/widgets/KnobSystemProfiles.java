@@ -0,0 +1,123 @@
+/* ******************************************************************************
+ * Copyright (c) 2014 - 2015 Fabian Prasser.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Fabian Prasser - initial API and implementation
+ ******************************************************************************/
+
+package de.linearbits.swt.widgets;
+
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Manages the built-in system color profiles. There is one instance per display, which is shared
+ * by all knobs on this display. Profiles are created lazily, reference counted and disposed as soon
+ * as no knob uses them anymore, or when the display is disposed.
+ *
+ * @author Fabian Prasser
+ */
+class KnobSystemProfiles {
+
+    /** Key for storing the profiles with the display */
+    private static final String KEY = KnobSystemProfiles.class.getName();
+
+    /**
+     * Returns the profiles for the given display
+     *
+     * @param display
+     * @return
+     */
+    static KnobSystemProfiles get(Display display) {
+        KnobSystemProfiles profiles = (KnobSystemProfiles) display.getData(KEY);
+        if (profiles == null) {
+            final KnobSystemProfiles result = new KnobSystemProfiles(display);
+            display.setData(KEY, result);
+            display.disposeExec(new Runnable() {
+                @Override
+                public void run() {
+                    result.dispose();
+                }
+            });
+            profiles = result;
+        }
+        return profiles;
+    }
+
+    /** Display */
+    private final Display    display;
+    /** The default profile */
+    private KnobColorProfile defaultProfile;
+    /** Number of references to the default profile */
+    private int              defaultReferences;
+    /** The focused profile */
+    private KnobColorProfile focusedProfile;
+    /** Number of references to the focused profile */
+    private int              focusedReferences;
+
+    /**
+     * Creates a new instance
+     *
+     * @param display
+     */
+    private KnobSystemProfiles(Display display) {
+        this.display = display;
+    }
+
+    /**
+     * Returns the default system profile and increments its reference count
+     *
+     * @return
+     */
+    KnobColorProfile acquireDefault() {
+        if (defaultProfile == null) {
+            defaultProfile = KnobColorProfile.createDefaultSystemProfile(display);
+        }
+        defaultReferences++;
+        return defaultProfile;
+    }
+
+    /**
+     * Returns the focused system profile and increments its reference count
+     *
+     * @return
+     */
+    KnobColorProfile acquireFocused() {
+        if (focusedProfile == null) {
+            focusedProfile = KnobColorProfile.createFocusedSystemProfile(display);
+        }
+        focusedReferences++;
+        return focusedProfile;
+    }
+
+    /**
+     * Decrements the reference count of the given profile, and disposes it if it is not used anymore.
+     * Profiles, which are not managed by this instance, are ignored.
+     *
+     * @param profile
+     */
+    void release(KnobColorProfile profile) {
+        if (profile != null && profile == defaultProfile && --defaultReferences == 0) {
+            defaultProfile.dispose();
+            defaultProfile = null;
+        } else if (profile != null && profile == focusedProfile && --focusedReferences == 0) {
+            focusedProfile.dispose();
+            focusedProfile = null;
+        }
+    }
+
+    /**
+     * Disposes all profiles
+     */
+    private void dispose() {
+        if (defaultProfile != null && !defaultProfile.isDisposed()) defaultProfile.dispose();
+        if (focusedProfile != null && !focusedProfile.isDisposed()) focusedProfile.dispose();
+        defaultProfile = null;
+        focusedProfile = null;
+        defaultReferences = 0;
+        focusedReferences = 0;
+    }
+}
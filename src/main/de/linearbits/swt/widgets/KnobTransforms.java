@@ -0,0 +1,123 @@
+/* ******************************************************************************
+ * Copyright (c) 2014 - 2015 Fabian Prasser.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Fabian Prasser - initial API and implementation
+ ******************************************************************************/
+
+package de.linearbits.swt.widgets;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.swt.graphics.Transform;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * Manages the transforms used for painting knobs on scaled monitors. There is one instance per display,
+ * which is shared by all knobs on this display. There is one transform per scale factor, which is created
+ * lazily and reference counted. It is disposed when no knob uses it anymore, or when the display is
+ * disposed. Knobs must therefore not dispose them.
+ *
+ * @author Fabian Prasser
+ */
+class KnobTransforms {
+
+    /** Key for storing the transforms with the display */
+    private static final String KEY = KnobTransforms.class.getName();
+
+    /**
+     * Returns the transforms for the given display
+     *
+     * @param display
+     * @return
+     */
+    static KnobTransforms get(Display display) {
+        KnobTransforms transforms = (KnobTransforms) display.getData(KEY);
+        if (transforms == null) {
+            final KnobTransforms result = new KnobTransforms(display);
+            display.setData(KEY, result);
+            display.disposeExec(new Runnable() {
+                @Override
+                public void run() {
+                    result.dispose();
+                }
+            });
+            transforms = result;
+        }
+        return transforms;
+    }
+
+    /** Display */
+    private final Display               display;
+    /** Transforms per scale factor */
+    private final Map<Float, Transform> transforms = new HashMap<Float, Transform>();
+    /** Number of references per scale factor */
+    private final Map<Float, Integer>   references = new HashMap<Float, Integer>();
+
+    /**
+     * Creates a new instance
+     *
+     * @param display
+     */
+    private KnobTransforms(Display display) {
+        this.display = display;
+    }
+
+    /**
+     * Returns a transform, which scales down by the given factor, and increments its reference count
+     *
+     * @param scale
+     * @return
+     */
+    Transform acquire(float scale) {
+        Transform transform = transforms.get(scale);
+        if (transform == null) {
+            transform = new Transform(display);
+            transform.scale(1f / scale, 1f / scale);
+            transforms.put(scale, transform);
+            references.put(scale, 0);
+        }
+        references.put(scale, references.get(scale) + 1);
+        return transform;
+    }
+
+    /**
+     * Decrements the reference count of the transform for the given scale factor, and disposes it
+     * if it is not used anymore
+     *
+     * @param scale
+     */
+    void release(float scale) {
+        Integer count = references.get(scale);
+        if (count == null) {
+            return;
+        }
+        if (count > 1) {
+            references.put(scale, count - 1);
+        } else {
+            Transform transform = transforms.remove(scale);
+            references.remove(scale);
+            if (!transform.isDisposed()) {
+                transform.dispose();
+            }
+        }
+    }
+
+    /**
+     * Disposes all transforms
+     */
+    private void dispose() {
+        for (Transform transform : transforms.values()) {
+            if (!transform.isDisposed()) {
+                transform.dispose();
+            }
+        }
+        transforms.clear();
+        references.clear();
+    }
+}
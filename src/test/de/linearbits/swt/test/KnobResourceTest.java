@@ -0,0 +1,427 @@
+/* ******************************************************************************
+ * Copyright (c) 2014 - 2015 Fabian Prasser.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Fabian Prasser - initial API and implementation
+ ******************************************************************************/
+
+package de.linearbits.swt.test;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.DeviceData;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.Shell;
+
+import de.linearbits.swt.widgets.Knob;
+import de.linearbits.swt.widgets.KnobColorProfile;
+import de.linearbits.swt.widgets.KnobRange;
+import de.linearbits.swt.widgets.KnobStatistics;
+
+/**
+ * Tracks native resources, like {@link Sleak}, while creating and disposing knobs. Checks that
+ * the number of native resources does not grow with the number of knobs.
+ *
+ * @author Fabian Prasser
+ */
+public class KnobResourceTest {
+
+    /** Number of mouse events per drag test */
+    private static final int EVENTS = 10000;
+    /** Number of events after which the knob is painted */
+    private static final int PAINT  = 10;
+    /** Number of resize events per resize test */
+    private static final int RESIZES = 50;
+    /** Milliseconds to wait for the knob to render its background after resizing */
+    private static final int WAIT    = 1000;
+
+    /**
+     * Main entry point
+     *
+     * @param args
+     */
+    public static void main(String[] args) {
+
+        DeviceData data = new DeviceData();
+        data.tracking = true;
+        Display display = new Display(data);
+        Shell shell = new Shell(display);
+
+        boolean success = true;
+        success &= testSystemProfiles(display, shell);
+        success &= testHiddenCursor(display, shell);
+        success &= testDrag(display, shell, 100);
+        success &= testDrag(display, shell, 15);
+        success &= testResize(display, shell);
+        success &= testSizes(display, shell);
+        success &= testBudget(display, shell);
+
+        shell.dispose();
+        display.dispose();
+        System.out.println(success ? "All tests passed" : "Some tests FAILED");
+        if (!success) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Processes events and paints the knob for some time, so that pending backgrounds are rendered
+     *
+     * @param display
+     * @param knob
+     */
+    private static void await(Display display, Knob<?> knob) {
+        long end = System.currentTimeMillis() + WAIT;
+        while (System.currentTimeMillis() < end) {
+            if (!display.readAndDispatch()) {
+                knob.update();
+            }
+        }
+    }
+
+    /**
+     * Checks the given condition and reports the result
+     *
+     * @param test
+     * @param condition
+     * @return
+     */
+    private static boolean check(String test, boolean condition) {
+        System.out.println((condition ? "Passed: " : "FAILED: ") + test);
+        return condition;
+    }
+
+    /**
+     * Returns the number of tracked native resources per type
+     *
+     * @param display
+     * @return
+     */
+    private static Map<String, Integer> count(Display display) {
+        Map<String, Integer> result = new TreeMap<String, Integer>();
+        for (Object object : display.getDeviceData().objects) {
+            String type = object.getClass().getSimpleName();
+            Integer count = result.get(type);
+            result.put(type, count == null ? 1 : count + 1);
+        }
+        return result;
+    }
+
+    /**
+     * Creates the given number of knobs with the system color profiles
+     *
+     * @param shell
+     * @param knobs
+     * @return
+     */
+    private static Knob<?>[] create(Shell shell, int knobs) {
+        Knob<?>[] result = new Knob<?>[knobs];
+        for (int i = 0; i < knobs; i++) {
+            result[i] = new Knob<Integer>(shell, SWT.NULL, new KnobRange.Integer(0, 100));
+        }
+        return result;
+    }
+
+    /**
+     * Disposes the given knobs
+     *
+     * @param knobs
+     */
+    private static void dispose(Knob<?>[] knobs) {
+        for (Knob<?> knob : knobs) {
+            knob.dispose();
+        }
+    }
+
+    /**
+     * Sends the given number of mouse moves to the knob, alternating between upwards and
+     * downwards, and paints it regularly
+     *
+     * @param display
+     * @param knob
+     * @param events
+     */
+    private static void drag(Display display, Knob<?> knob, int events) {
+        for (int i = 0; i < events; i++) {
+            Event event = new Event();
+            event.y = (i / 500) % 2 == 0 ? 1 : -1;
+            knob.notifyListeners(SWT.MouseMove, event);
+            if (i % PAINT == 0) {
+                knob.update();
+                while (display.readAndDispatch()) {
+                    // Process pending events
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of tracked native resources of the given type
+     *
+     * @param counts
+     * @param type
+     * @return
+     */
+    private static int get(Map<String, Integer> counts, String type) {
+        Integer count = counts.get(type);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Paints many knobs with a small image cache budget and checks that the budget is respected
+     *
+     * @param display
+     * @param shell
+     * @return
+     */
+    private static boolean testBudget(Display display, Shell shell) {
+
+        boolean success = true;
+        long budget = Knob.getImageCacheBudget(display);
+        shell.setLayout(null);
+        shell.setSize(1100, 200);
+        shell.open();
+
+        // Measure a single background
+        Knob.setImageCacheBudget(display, 0);
+        KnobStatistics statistics = Knob.getStatistics(display);
+        statistics.reset();
+        Knob<?>[] knobs = new Knob<?>[10];
+        for (int i = 0; i < knobs.length; i++) {
+            // Different ranges result in different backgrounds
+            knobs[i] = new Knob<Integer>(shell, SWT.NULL, new KnobRange.Integer(0, 10 + i));
+        }
+        knobs[0].setBounds(0, 0, 100, 100);
+        knobs[0].update();
+        long single = statistics.getBytes();
+
+        // Paint all knobs with a budget of three backgrounds, hiding each knob after it has been painted
+        Knob.setImageCacheBudget(display, single * 3);
+        for (int i = 0; i < knobs.length; i++) {
+            knobs[i].setBounds(i * 100, 0, 100, 100);
+            knobs[i].update();
+            knobs[i].setVisible(false);
+        }
+        System.out.println("Statistics with a budget of " + (single * 3) + " bytes: " + statistics);
+        success &= check("Image cache respects its budget", statistics.getBytes() <= single * 3);
+        success &= check("Image cache evicts images", statistics.getEvictions() > 0);
+
+        // Evicted backgrounds are rendered again
+        long misses = statistics.getMisses();
+        for (Knob<?> knob : knobs) {
+            knob.setVisible(true);
+            knob.update();
+            knob.setVisible(false);
+        }
+        success &= check("Evicted backgrounds are rendered again", statistics.getMisses() > misses);
+
+        // The budget is raised to the images of all visible knobs, so repainting them does not render again
+        for (Knob<?> knob : knobs) {
+            knob.setVisible(true);
+            knob.update();
+        }
+        misses = statistics.getMisses();
+        for (Knob<?> knob : knobs) {
+            knob.redraw();
+            knob.update();
+        }
+        System.out.println("Statistics with all knobs visible: " + statistics);
+        success &= check("Visible knobs do not evict the images of each other", statistics.getMisses() == misses);
+        success &= check("Statistics report the raised limit", statistics.getLimit() > single * 3);
+
+        // Cleanup
+        dispose(knobs);
+        Knob.setImageCacheBudget(display, budget);
+        return success;
+    }
+
+    /**
+     * Drags a knob of the given size for many events, painting it regularly, and checks that the
+     * number of native resources stays constant
+     *
+     * @param display
+     * @param shell
+     * @param size
+     * @return
+     */
+    private static boolean testDrag(Display display, Shell shell, int size) {
+
+        // Paint each change immediately
+        Knob.setRedrawRate(display, 0);
+        shell.setLayout(null);
+        shell.setSize(size * 2, size * 2);
+        shell.open();
+        Knob<Double> knob = new Knob<Double>(shell, SWT.NULL, new KnobRange.Double(0d, 1d));
+        knob.setBounds(0, 0, size, size);
+
+        // Start dragging
+        Event event = new Event();
+        event.button = 1;
+        knob.notifyListeners(SWT.MouseDown, event);
+
+        // Warm up, so that all caches are filled
+        drag(display, knob, EVENTS / 10);
+        Map<String, Integer> before = count(display);
+
+        // Drag
+        drag(display, knob, EVENTS);
+        Map<String, Integer> after = count(display);
+        System.out.println("Resources before dragging a knob of size " + size + ": " + before + ", after: " + after);
+
+        // Cleanup
+        knob.notifyListeners(SWT.MouseUp, event);
+        knob.dispose();
+        Knob.setRedrawRate(display, 60);
+        return check("Native resources are constant while dragging a knob of size " + size, before.equals(after));
+    }
+
+    /**
+     * Checks that the hidden cursor is created lazily and shared by all knobs
+     *
+     * @param display
+     * @param shell
+     * @return
+     */
+    private static boolean testHiddenCursor(Display display, Shell shell) {
+
+        boolean success = true;
+        int before = get(count(display), "Cursor");
+
+        // No cursor before the first drag
+        Knob<?>[] knobs = create(shell, 100);
+        success &= check("Hidden cursor is created lazily", get(count(display), "Cursor") == before);
+
+        // Drag all knobs
+        for (Knob<?> knob : knobs) {
+            Event event = new Event();
+            event.button = 1;
+            knob.notifyListeners(SWT.MouseDown, event);
+            knob.notifyListeners(SWT.MouseUp, event);
+        }
+        int cursors = get(count(display), "Cursor") - before;
+        System.out.println("Cursors for 100 dragged knobs: " + cursors);
+        success &= check("Hidden cursor is shared", cursors <= 1);
+
+        // The shared cursor survives disposing the knobs
+        dispose(knobs);
+        success &= check("Hidden cursor is kept for further knobs", get(count(display), "Cursor") - before == cursors);
+        return success;
+    }
+
+    /**
+     * Resizes a knob many times and checks that its background is only rendered once the size is stable
+     *
+     * @param display
+     * @param shell
+     * @return
+     */
+    private static boolean testResize(Display display, Shell shell) {
+
+        boolean success = true;
+        shell.setLayout(null);
+        shell.setSize(400, 400);
+        shell.open();
+        Map<String, Integer> before = count(display);
+        Knob<Double> knob = new Knob<Double>(shell, SWT.NULL, new KnobRange.Double(0d, 1d));
+        knob.setBounds(0, 0, 100, 100);
+        knob.update();
+
+        // Resize
+        KnobStatistics statistics = Knob.getStatistics(display);
+        statistics.reset();
+        for (int i = 1; i <= RESIZES; i++) {
+            knob.setBounds(0, 0, 100 + i, 100 + i);
+            knob.update();
+        }
+        System.out.println("Statistics while resizing: " + statistics);
+        success &= check("No backgrounds are rendered while resizing", statistics.getBackgroundRenders() == 0);
+
+        // Wait until the size is stable
+        await(display, knob);
+        System.out.println("Statistics after resizing: " + statistics);
+        success &= check("One background is rendered after resizing", statistics.getBackgroundRenders() == 1);
+
+        // Cleanup. At most the backgrounds at the initial and at the final size are retained.
+        knob.dispose();
+        Map<String, Integer> after = count(display);
+        success &= check("Native resources are released after resizing", get(after, "Image") - get(before, "Image") <= 2);
+        return success;
+    }
+
+    /**
+     * Switches a knob between a few sizes and checks that backgrounds are only rendered once per size
+     *
+     * @param display
+     * @param shell
+     * @return
+     */
+    private static boolean testSizes(Display display, Shell shell) {
+
+        shell.setLayout(null);
+        shell.setSize(400, 400);
+        shell.open();
+        Knob<Double> knob = new Knob<Double>(shell, SWT.NULL, new KnobRange.Double(0d, 1d));
+        KnobStatistics statistics = Knob.getStatistics(display);
+        statistics.reset();
+
+        // Switch sizes
+        int[] sizes = new int[] { 24, 48, 96 };
+        for (int i = 0; i < sizes.length * 3; i++) {
+            knob.setBounds(0, 0, sizes[i % sizes.length], sizes[i % sizes.length]);
+            await(display, knob);
+        }
+        System.out.println("Statistics after switching sizes: " + statistics);
+
+        // Cleanup
+        knob.dispose();
+        return check("Backgrounds are rendered once per size", statistics.getBackgroundRenders() == sizes.length);
+    }
+
+    /**
+     * Checks that the system color profiles are shared by all knobs and released with them
+     *
+     * @param display
+     * @param shell
+     * @return
+     */
+    private static boolean testSystemProfiles(Display display, Shell shell) {
+
+        boolean success = true;
+        int before = get(count(display), "Color");
+
+        // Colors must not grow with the number of knobs
+        Knob<?>[] knobs = create(shell, 10);
+        int colors10 = get(count(display), "Color") - before;
+        dispose(knobs);
+        knobs = create(shell, 100);
+        int colors100 = get(count(display), "Color") - before;
+        System.out.println("Colors for 10 knobs: " + colors10 + ", for 100 knobs: " + colors100);
+        success &= check("System profiles are shared", colors10 == colors100);
+
+        // Replacing the profiles of all knobs releases the shared colors
+        KnobColorProfile defaultProfile = KnobColorProfile.createDefaultBlueRedProfile(display);
+        KnobColorProfile focusedProfile = KnobColorProfile.createFocusedBlueRedProfile(display);
+        int custom = get(count(display), "Color");
+        for (Knob<?> knob : knobs) {
+            knob.setDefaultColorProfile(defaultProfile);
+            knob.setFocusedColorProfile(focusedProfile);
+        }
+        success &= check("Replaced system profiles are released", get(count(display), "Color") == custom - colors100);
+
+        // Disposing all knobs leaves no colors behind
+        dispose(knobs);
+        defaultProfile.dispose();
+        focusedProfile.dispose();
+        knobs = create(shell, 10);
+        dispose(knobs);
+        success &= check("Disposed knobs release all colors", get(count(display), "Color") == before);
+        return success;
+    }
+}
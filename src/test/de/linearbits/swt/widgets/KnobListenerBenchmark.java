@@ -0,0 +1,119 @@
+/* ******************************************************************************
+ * Copyright (c) 2014 - 2015 Fabian Prasser.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Fabian Prasser - initial API and implementation
+ ******************************************************************************/
+
+package de.linearbits.swt.widgets;
+
+import java.lang.management.ManagementFactory;
+
+import org.eclipse.swt.events.TypedEvent;
+import org.eclipse.swt.widgets.Event;
+
+/**
+ * Measures the number of bytes allocated per event when notifying selection listeners
+ * and primitive listeners. Does not require a display.
+ *
+ * @author Fabian Prasser
+ */
+public class KnobListenerBenchmark {
+
+    /** Number of warmup events */
+    private static final int    WARMUP = 1000000;
+    /** Number of measured events */
+    private static final int    EVENTS = 1000000;
+    /** Prevents the notifications from being optimized away */
+    private static volatile long sink;
+
+    /**
+     * Main entry point
+     *
+     * @param args
+     */
+    public static void main(String[] args) {
+
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!bean.isThreadAllocatedMemorySupported()) {
+            System.out.println("Measuring allocations is not supported by this JVM");
+            return;
+        }
+        bean.setThreadAllocatedMemoryEnabled(true);
+
+        KnobRange.Integer range = new KnobRange.Integer(0, 1000000);
+        KnobListeners listeners = new KnobListeners();
+        listeners.addInt(new IntKnobListener() {
+            @Override
+            public void valueChanged(Knob<?> knob, int value) {
+                sink += value;
+            }
+        });
+        listeners.addDouble(new DoubleKnobListener() {
+            @Override
+            public void valueChanged(Knob<?> knob, double value) {
+                sink += (long) value;
+            }
+        });
+
+        // Warmup
+        fireSelectionEvents(range, WARMUP);
+        firePrimitiveEvents(listeners, range, WARMUP);
+
+        // Measure
+        long thread = Thread.currentThread().getId();
+        long before = bean.getThreadAllocatedBytes(thread);
+        fireSelectionEvents(range, EVENTS);
+        long selection = bean.getThreadAllocatedBytes(thread) - before;
+        before = bean.getThreadAllocatedBytes(thread);
+        firePrimitiveEvents(listeners, range, EVENTS);
+        long primitive = bean.getThreadAllocatedBytes(thread) - before;
+
+        System.out.println("Path\t\tBytes per event");
+        System.out.println("Selection\t" + format((double) selection / (double) EVENTS));
+        System.out.println("Primitive\t" + format((double) primitive / (double) EVENTS));
+    }
+
+    /**
+     * Notifies the primitive listeners
+     *
+     * @param listeners
+     * @param range
+     * @param events
+     */
+    private static void firePrimitiveEvents(KnobListeners listeners, KnobRange<?> range, int events) {
+        for (int i = 0; i < events; i++) {
+            listeners.fire(null, range, (double) i / (double) events);
+        }
+    }
+
+    /**
+     * Creates events, like a knob does for notifying selection listeners. Selection events
+     * require a widget, so a typed event with the same base class is created instead.
+     *
+     * @param range
+     * @param events
+     */
+    private static void fireSelectionEvents(KnobRange.Integer range, int events) {
+        for (int i = 0; i < events; i++) {
+            Event event = new Event();
+            TypedEvent sevent = new TypedEvent((Object) event);
+            sevent.data = range.toExternal((double) i / (double) events);
+            sink += ((java.lang.Integer) sevent.data).intValue();
+        }
+    }
+
+    /**
+     * Formats the given value
+     *
+     * @param value
+     * @return
+     */
+    private static String format(double value) {
+        return String.format("%.1f", value);
+    }
+}
@@ -0,0 +1,199 @@
+/* ******************************************************************************
+ * Copyright (c) 2014 - 2015 Fabian Prasser.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Fabian Prasser - initial API and implementation
+ ******************************************************************************/
+
+package de.linearbits.swt.widgets;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DirectColorModel;
+import java.awt.image.WritableRaster;
+import java.util.Random;
+
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.RGB;
+
+/**
+ * Measures the cost of converting a rendered knob body from ARGB pixels to SWT image data with an
+ * alpha channel, compared to the former pixel-by-pixel conversion of an AWT image without alpha
+ * channel. Does not require a display.
+ *
+ * @author Fabian Prasser
+ */
+public class KnobRendererBenchmark {
+
+    /** Sizes of the bodies */
+    private static final int[] SIZES       = { 50, 100, 200, 400 };
+    /** Number of warmup runs */
+    private static final int   WARMUP      = 50;
+    /** Number of measured runs */
+    private static final int   REPETITIONS = 200;
+    /** Prevents the conversions from being optimized away */
+    private static volatile int sink;
+
+    /**
+     * Main entry point
+     *
+     * @param args
+     */
+    public static void main(String[] args) {
+
+        System.out.println("Size\tPer-pixel [ms]\tImage data [ms]\tSpeedup");
+        for (int size : SIZES) {
+            int[] pixels = createPixels(size);
+            BufferedImage image = createImage(pixels, size);
+            check(pixels, KnobRenderer.toImageData(pixels, size, size), size);
+            check(convertPerPixel(image), KnobRenderer.toImageData(pixels, size, size));
+            double before = measure(image);
+            double after = measure(pixels, size);
+            System.out.println(size + "\t" + format(before) + "\t\t" + format(after) + "\t\t" + format(before / after));
+        }
+    }
+
+    /**
+     * Makes sure that both conversions produce identical colors
+     *
+     * @param expected
+     * @param actual
+     */
+    private static void check(ImageData expected, ImageData actual) {
+        for (int y = 0; y < expected.height; y++) {
+            for (int x = 0; x < expected.width; x++) {
+                if (!expected.palette.getRGB(expected.getPixel(x, y)).equals(actual.palette.getRGB(actual.getPixel(x, y)))) {
+                    throw new IllegalStateException("Conversion results differ at (" + x + ", " + y + ")");
+                }
+            }
+        }
+    }
+
+    /**
+     * Makes sure that the conversion preserves colors and alpha values and rotates by 180 degrees
+     *
+     * @param pixels
+     * @param data
+     * @param size
+     */
+    private static void check(int[] pixels, ImageData data, int size) {
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                int expected = pixels[(size - y - 1) * size + size - x - 1];
+                int rgb = data.getPixel(x, y);
+                if (rgb != (expected & 0xFFFFFF) || data.getAlpha(x, y) != expected >>> 24) {
+                    throw new IllegalStateException("Conversion result differs at (" + x + ", " + y + ")");
+                }
+            }
+        }
+    }
+
+    /**
+     * The former conversion of rendered images, which has been borrowed from JFreeChart. Converts the
+     * given image pixel by pixel and rotates it by 180 degrees.
+     *
+     * @param bufferedImage
+     * @return
+     */
+    private static ImageData convertPerPixel(BufferedImage bufferedImage) {
+        DirectColorModel colorModel = (DirectColorModel) bufferedImage.getColorModel();
+        PaletteData palette = new PaletteData(colorModel.getRedMask(),
+                                              colorModel.getGreenMask(),
+                                              colorModel.getBlueMask());
+        ImageData data = new ImageData(bufferedImage.getWidth(),
+                                       bufferedImage.getHeight(),
+                                       colorModel.getPixelSize(),
+                                       palette);
+        WritableRaster raster = bufferedImage.getRaster();
+        int[] pixelArray = new int[3];
+        for (int y = 0; y < data.height; y++) {
+            for (int x = 0; x < data.width; x++) {
+                raster.getPixel(x, y, pixelArray);
+                int pixel = palette.getPixel(new RGB(pixelArray[0],
+                                                     pixelArray[1],
+                                                     pixelArray[2]));
+                data.setPixel(data.width - x - 1, data.height - y - 1, pixel);
+            }
+        }
+        return data;
+    }
+
+    /**
+     * Creates an image without alpha channel from the given ARGB pixels
+     *
+     * @param pixels
+     * @param size
+     * @return
+     */
+    private static BufferedImage createImage(int[] pixels, int size) {
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, size, size, pixels, 0, size);
+        return image;
+    }
+
+    /**
+     * Creates ARGB pixels with random content
+     *
+     * @param size
+     * @return
+     */
+    private static int[] createPixels(int size) {
+        int[] pixels = new int[size * size];
+        Random random = new Random(size);
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt();
+        }
+        return pixels;
+    }
+
+    /**
+     * Formats the given value
+     *
+     * @param value
+     * @return
+     */
+    private static String format(double value) {
+        return String.format("%.3f", value);
+    }
+
+    /**
+     * Returns the average time in milliseconds for converting the given image pixel by pixel
+     *
+     * @param image
+     * @return
+     */
+    private static double measure(BufferedImage image) {
+        for (int i = 0; i < WARMUP; i++) {
+            sink += convertPerPixel(image).data[0];
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < REPETITIONS; i++) {
+            sink += convertPerPixel(image).data[0];
+        }
+        long time = System.nanoTime() - start;
+        return (double) time / (double) REPETITIONS / 1000000d;
+    }
+
+    /**
+     * Returns the average time in milliseconds for converting the given pixels into image data
+     *
+     * @param pixels
+     * @param size
+     * @return
+     */
+    private static double measure(int[] pixels, int size) {
+        for (int i = 0; i < WARMUP; i++) {
+            sink += KnobRenderer.toImageData(pixels, size, size).data[0];
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < REPETITIONS; i++) {
+            sink += KnobRenderer.toImageData(pixels, size, size).data[0];
+        }
+        long time = System.nanoTime() - start;
+        return (double) time / (double) REPETITIONS / 1000000d;
+    }
+}
@@ -0,0 +1,98 @@
+/* ******************************************************************************
+ * Copyright (c) 2014 - 2015 Fabian Prasser.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     Fabian Prasser - initial API and implementation
+ ******************************************************************************/
+
+package de.linearbits.swt.widgets;
+
+import java.awt.GraphicsDevice;
+import java.awt.GraphicsEnvironment;
+import java.awt.geom.AffineTransform;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+
+/**
+ * Measures the time until the first knob has been created. As the toolkits are initialized only
+ * once per process, each variant must be measured in a separate JVM:
+ * <ul>
+ * <li><code>KnobStartupBenchmark awt</code> detects the scale factor with AWT before creating the knob, like previous versions</li>
+ * <li><code>KnobStartupBenchmark swt</code> only uses the detection of the knob, which is based on SWT</li>
+ * </ul>
+ * Knobs use the software renderer, so that AWT is not initialized when painting them.
+ *
+ * @author Fabian Prasser
+ */
+public class KnobStartupBenchmark {
+
+    /** Number of knobs */
+    private static final int KNOBS = 100;
+
+    /**
+     * Main entry point
+     *
+     * @param args
+     */
+    public static void main(String[] args) {
+
+        boolean awt = args.length > 0 && args[0].equalsIgnoreCase("awt");
+
+        Display display = new Display();
+        Shell shell = new Shell(display);
+
+        // Time to first knob
+        long start = System.nanoTime();
+        if (awt) {
+            isRetina();
+        }
+        Knob<Integer> knob = new Knob<Integer>(shell, SWT.NULL, new KnobRange.Integer(0, 100));
+        knob.setRenderer(Knob.RENDERER_SOFTWARE);
+        long first = System.nanoTime() - start;
+
+        // Time to further knobs
+        start = System.nanoTime();
+        for (int i = 1; i < KNOBS; i++) {
+            if (awt) {
+                isRetina();
+            }
+            knob = new Knob<Integer>(shell, SWT.NULL, new KnobRange.Integer(0, 100));
+            knob.setRenderer(Knob.RENDERER_SOFTWARE);
+        }
+        long further = System.nanoTime() - start;
+
+        System.out.println("Detection\t" + (awt ? "AWT" : "SWT"));
+        System.out.println("First knob\t" + format(first / 1000000d) + " ms");
+        System.out.println("Further knobs\t" + format(further / 1000000d / (KNOBS - 1)) + " ms per knob");
+
+        shell.dispose();
+        display.dispose();
+    }
+
+    /**
+     * Formats the given value
+     *
+     * @param value
+     * @return
+     */
+    private static String format(double value) {
+        return String.format("%.3f", value);
+    }
+
+    /**
+     * Detects a retina display with AWT, like previous versions of the knob
+     *
+     * @return
+     */
+    private static boolean isRetina() {
+        GraphicsDevice graphicsDevice = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice();
+        AffineTransform tx = graphicsDevice.getDefaultConfiguration().getDefaultTransform();
+        return Math.round(tx.getScaleX()) == 2;
+    }
+}